@@ -0,0 +1,52 @@
+package preprocessor.delegates;
+
+import java.util.List;
+
+import geometry_objects.Segment;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SegmentBatch with the orientation determinants of a block evaluated in
+ * vector lanes (jdk.incubator.vector); the tail of a block that does not fill
+ * a vector is left to the scalar loop.
+ *
+ * Each lane performs the operations of the scalar loop in the same order
+ * (no fused multiply-add), so the determinants and bounds are bit for bit
+ * those of SegmentBatch: both kernels keep the same pairs.
+ *
+ * This class lives in its own source root (src-vector), outside the default
+ * build: compiling and running it requires --add-modules jdk.incubator.vector.
+ * SegmentBatch.create only loads it when it was compiled in and that module
+ * is present.
+ */
+class VectorSegmentBatch extends SegmentBatch
+{
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	VectorSegmentBatch(List<Segment> segments)
+	{
+		super(segments);
+	}
+
+	@Override
+	protected void orientation(double[] ax, double[] ay, double[] bx, double[] by,
+			                   double[] cx, double[] cy, double[] det, double[] bound, int from, int to)
+	{
+		int k = from;
+		for (int end = from + SPECIES.loopBound(to - from); k < end; k += SPECIES.length()) {
+			DoubleVector vax = DoubleVector.fromArray(SPECIES, ax, k);
+			DoubleVector vay = DoubleVector.fromArray(SPECIES, ay, k);
+
+			DoubleVector left = DoubleVector.fromArray(SPECIES, bx, k).sub(vax)
+					               .mul(DoubleVector.fromArray(SPECIES, cy, k).sub(vay));
+			DoubleVector right = DoubleVector.fromArray(SPECIES, by, k).sub(vay)
+					                .mul(DoubleVector.fromArray(SPECIES, cx, k).sub(vax));
+
+			left.sub(right).intoArray(det, k);
+			left.abs().add(right.abs()).mul(ERROR_BOUND).intoArray(bound, k);
+		}
+
+		super.orientation(ax, ay, bx, by, cx, cy, det, bound, k, to);
+	}
+}
@@ -19,20 +19,100 @@ public class Segment extends GeometricObject
 	protected double _length;
 	protected double _slope;
 
+	//
+	// Geometry computed once (endpoints never change):
+	//    direction (point2 - point1), squared length, axis-aligned bounding box
+	//    and the canonical line  _a x + _b y = _c  (the same for AB and BA)
+	//
+	protected double _dx;
+	protected double _dy;
+	protected double _lengthSquared;
+
+	protected double _minX;
+	protected double _minY;
+	protected double _maxX;
+	protected double _maxY;
+
+	protected double _a;
+	protected double _b;
+	protected double _c;
+
+	protected boolean _vertical;
+	protected boolean _horizontal;
+
 	public Point getPoint1() { return _point1; }
 	public Point getPoint2() { return _point2; }
 	public double length() { return _length; }
-	public double slope()
-	{
-		try { return GeometryUtilities.slope(_point1, _point2); }
-		catch(ArithmeticException ae) { return Double.POSITIVE_INFINITY; }
-	}
+	public double lengthSquared() { return _lengthSquared; }
+	public double slope() { return _slope; }
+
+	public double getDeltaX() { return _dx; }
+	public double getDeltaY() { return _dy; }
+
+	public double getMinX() { return _minX; }
+	public double getMinY() { return _minY; }
+	public double getMaxX() { return _maxX; }
+	public double getMaxY() { return _maxY; }
+
+	public double getLineA() { return _a; }
+	public double getLineB() { return _b; }
+	public double getLineC() { return _c; }
 
 	public Segment(Segment in) { this(in._point1, in._point2); }
 	public Segment(Point p1, Point p2)
 	{
 		_point1 = p1;
 		_point2 = p2;
+
+		_dx = p2.getX() - p1.getX();
+		_dy = p2.getY() - p1.getY();
+		_lengthSquared = _dx * _dx + _dy * _dy;
+		_length = Math.sqrt(_lengthSquared);
+
+		_minX = Math.min(p1.getX(), p2.getX());
+		_minY = Math.min(p1.getY(), p2.getY());
+		_maxX = Math.max(p1.getX(), p2.getX());
+		_maxY = Math.max(p1.getY(), p2.getY());
+
+		_vertical = MathUtilities.doubleEquals(p1.getX(), p2.getX());
+		_horizontal = MathUtilities.doubleEquals(p1.getY(), p2.getY());
+		_slope = _vertical ? Double.POSITIVE_INFINITY : GeometryUtilities.slope(p1, p2);
+
+		// the line through the (lexicographically) ordered endpoints
+		Point first = p1.compareTo(p2) <= 0 ? p1 : p2;
+		Point second = first == p1 ? p2 : p1;
+
+		_a = second.getY() - first.getY();
+		_b = first.getX() - second.getX();
+		_c = _a * first.getX() + _b * first.getY();
+	}
+
+	/*
+	 * The boxes are compared exactly, with no tolerance, and that agrees with the
+	 * intersection tests it guards: whether two segments meet is decided exactly from
+	 * their endpoints (GeometryPredicates.crossInMiddle, between), and segments meeting
+	 * by those predicates have exactly overlapping boxes. Coordinates are truncated
+	 * (MathUtilities.removeLessEpsilon) when a Point is made, before either test sees
+	 * them; TOLERANCE only snaps a crossing already found to a nearby endpoint.
+	 *
+	 * @param that -- a segment
+	 * @return false if the bounding boxes of the segments are disjoint (so the segments are)
+	 */
+	public boolean boundsOverlap(Segment that)
+	{
+		return _minX <= that._maxX && that._minX <= _maxX &&
+			   _minY <= that._maxY && that._minY <= _maxY;
+	}
+
+	/*
+	 * @param pt -- a point
+	 * @param tolerance -- how far outside the bounding box pt may be
+	 * @return false if pt is farther than tolerance outside the bounding box of this segment
+	 */
+	public boolean boundsContain(Point pt, double tolerance)
+	{
+		return _minX - tolerance <= pt.getX() && pt.getX() <= _maxX + tolerance &&
+			   _minY - tolerance <= pt.getY() && pt.getY() <= _maxY + tolerance;
 	}
 
 	/*
@@ -109,10 +189,18 @@ public class Segment extends GeometricObject
 
 	/*
 	 * @param that -- another segment
-	 * @return true / false if the two lines (infinite) are collinear
+	 * @return true / false if the two lines (infinite) are (exactly) collinear
 	 */
 	public boolean isCollinearWith(Segment that) { return LineDelegate.areCollinear(this, that); }
 
+	/*
+	 * Pieces split at a computed (truncated) point are only nearly collinear.
+	 *
+	 * @param that -- another segment
+	 * @return true / false if the two lines (infinite) are collinear within GeometryPredicates.TOLERANCE
+	 */
+	public boolean isNearlyCollinearWith(Segment that) { return LineDelegate.areNearlyCollinear(this, that); }
+
 	/*
 	 * @param pt -- a point
 	 * @return true if @pt is one of the endpoints of this segment
@@ -122,12 +210,12 @@ public class Segment extends GeometricObject
 	/*
 	 * @return true if this segment is horizontal (by analysis of both endpoints having same y-coordinate)
 	 */
-	public boolean isHorizontal() { return MathUtilities.doubleEquals(_point1.getY(), _point2.getY()); }
+	public boolean isHorizontal() { return _horizontal; }
 
 	/*
 	 * @return true if this segment is vertical (by analysis of both endpoints having same x-coordinate)
 	 */
-	public boolean isVertical() { return MathUtilities.doubleEquals(_point1.getX(), _point2.getX()); }
+	public boolean isVertical() { return _vertical; }
 
 	/*
 	 * @param pt -- one of the endpoints of this segment
@@ -144,7 +232,11 @@ public class Segment extends GeometricObject
 	@Override
 	public int hashCode()
 	{
-		return _point1.hashCode() + _point2.hashCode();
+		// symmetric in the endpoints (as equals is); a plain sum collides on symmetric figures
+		int h1 = _point1.hashCode();
+		int h2 = _point2.hashCode();
+
+		return 31 * Math.min(h1, h2) + Math.max(h1, h2);
 	}
 
 	/*
@@ -1,7 +1,7 @@
 package geometry_objects.delegates;
 
 import geometry_objects.Segment;
-import utilities.math.MathUtilities;
+import utilities.math.analytic_geometry.GeometryPredicates;
 
 /*
  * A processing, delegation class.
@@ -11,25 +11,26 @@ import utilities.math.MathUtilities;
 public class LineDelegate
 {
     /*
+     * Exact: a segment through a computed (truncated) point is generally not exactly
+     * collinear with the segment it came from; see areNearlyCollinear.
+     *
      * @param that -- another segment
      * @return true / false if the two lines are strictly collinear
      */
     public static boolean areCollinear(Segment thisS, Segment that)
     {
-        // If the segments are vertical, just compare the X values of one point of each
-        // Also ensure that the segments have some overlap
-        if (thisS.isVertical() && that.isVertical())
-        {
-            return MathUtilities.doubleEquals(thisS.getPoint1().getX(), that.getPoint1().getX());
-        }
-
-        // If the segments are horizontal, just compare the Y values of one point of each; this is redundant
-        if (thisS.isHorizontal() && that.isHorizontal())
-        {
-            return MathUtilities.doubleEquals(thisS.getPoint1().getY(), that.getPoint2().getY());
-        }
+        // Both endpoints of that lie on the line through thisS
+        return GeometryPredicates.collinear(thisS.getPoint1(), thisS.getPoint2(), that.getPoint1()) &&
+               GeometryPredicates.collinear(thisS.getPoint1(), thisS.getPoint2(), that.getPoint2());
+    }
 
-        // Slopes equate
-        return MathUtilities.doubleEquals(thisS.slope(), that.slope());
+    /*
+     * @param that -- another segment
+     * @return true / false if both endpoints of that lie within TOLERANCE of the line through thisS
+     */
+    public static boolean areNearlyCollinear(Segment thisS, Segment that)
+    {
+        return GeometryPredicates.nearlyCollinear(thisS.getPoint1(), thisS.getPoint2(), that.getPoint1()) &&
+               GeometryPredicates.nearlyCollinear(thisS.getPoint1(), thisS.getPoint2(), that.getPoint2());
     }
 }
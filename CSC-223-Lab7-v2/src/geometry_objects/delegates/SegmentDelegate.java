@@ -2,6 +2,7 @@ package geometry_objects.delegates;
 
 import geometry_objects.points.Point;
 import geometry_objects.Segment;
+import utilities.math.analytic_geometry.GeometryPredicates;
 import utilities.math.analytic_geometry.GeometryUtilities;
 
 /*
@@ -12,6 +13,12 @@ import utilities.math.analytic_geometry.GeometryUtilities;
  */
 public class SegmentDelegate extends FigureDelegate
 {
+	//
+	// between() accepts points within GeometryPredicates.TOLERANCE of the line and of the
+	// endpoints' projections: at most sqrt(2) * TOLERANCE outside the bounding box
+	//
+	private static final double BOUNDS_TOLERANCE = 2 * GeometryPredicates.TOLERANCE;
+
 	/*
 	 * @param thisS -- a segment
 	 * @param that -- a segment
@@ -19,12 +26,8 @@ public class SegmentDelegate extends FigureDelegate
 	 */
 	public static boolean middleCrosses(Segment thisS, Segment that)
 	{
-		Point intersection = thisS.segmentIntersection(that);
-		
-		if (intersection == null) return false;
-
-		return thisS.pointLiesBetweenEndpoints(intersection) &&
-			   that.pointLiesBetweenEndpoints(intersection);
+		return GeometryPredicates.crossInMiddle(thisS.getPoint1(), thisS.getPoint2(),
+				                                that.getPoint1(), that.getPoint2());
 	}
 
 	/*
@@ -43,12 +46,20 @@ public class SegmentDelegate extends FigureDelegate
 	 */
 	public static boolean standingOn(Segment thisS, Segment that)
 	{
-		Point intersection = thisS.segmentIntersection(that);
-		
-		if (intersection == null) return false;
-		
-		if (thisS.has(intersection) && that.pointLiesBetweenEndpoints(intersection)) return true;
-		if (that.has(intersection) && thisS.pointLiesBetweenEndpoints(intersection)) return true;
+		// collinear segments overlap (or not) rather than stand on one another
+		if (thisS.isCollinearWith(that)) return false;
+
+		return endpointInMiddle(thisS, that) || endpointInMiddle(that, thisS);
+	}
+
+	/*
+	 * @return true if an endpoint of thisS lies (exactly) strictly between the endpoints of that
+	 */
+	private static boolean endpointInMiddle(Segment thisS, Segment that)
+	{
+		for (Point endpoint : new Point[] { thisS.getPoint1(), thisS.getPoint2() }) {
+			if (!that.has(endpoint) && GeometryPredicates.between(endpoint, that.getPoint1(), that.getPoint2())) return true;
+		}
 
 		return false;
 	}
@@ -61,6 +72,8 @@ public class SegmentDelegate extends FigureDelegate
 	{
 		if (pt == null) return false;
 
+		if (!segment.boundsContain(pt, BOUNDS_TOLERANCE)) return false;
+
 		return GeometryUtilities.between(pt, segment.getPoint1(), segment.getPoint2());
 	}
 
@@ -72,6 +85,8 @@ public class SegmentDelegate extends FigureDelegate
 	{
 		if (pt == null || segment.has(pt)) return false;
 
+		if (!segment.boundsContain(pt, BOUNDS_TOLERANCE)) return false;
+
 		return GeometryUtilities.between(pt, segment.getPoint1(), segment.getPoint2());
 	}
 }
@@ -1,8 +1,8 @@
 package geometry_objects.delegates.intersections;
 
 import geometry_objects.points.Point;
+import geometry_objects.points.RationalPoint;
 import geometry_objects.Segment;
-import utilities.OutTriple;
 
 /*
  * This class treats all lines as infinite (in both directions)
@@ -17,110 +17,64 @@ public class LineIntersectionDelegate
      */
     public static Point intersection(Segment thisS, Segment that)
     {
-        // Special Case: Collinear, but non-overlapping.
-        if (thisS.coincideWithoutOverlap(that)) return null;
-
-        // Special Case: Intersect at an endpoint
-        Point shared = thisS.sharedVertex(that);
-        if (shared != null) return shared;
-
-        double a, b, c, d, e, f;
-        final String name = "";
-
-        if (thisS.isVertical() && that.isHorizontal()) return new Point(name, thisS.getPoint1().getX(), that.getPoint1().getY());
-
-        if (that.isVertical() && thisS.isHorizontal()) return new Point(name, that.getPoint1().getX(), thisS.getPoint1().getY());
-
-        OutTriple<Double, Double, Double> out = new OutTriple<Double, Double, Double>(); 
-        if (thisS.isVertical())
-        {
-            makeLine(that.getPoint1().getX(), that.getPoint1().getY(), that.getPoint2().getX(), that.getPoint2().getY(), out);// a, out b, out e);
-            a = out.getFirst();
-            b = out.getSecond();
-            e = out.getThird();
-            return new Point(name, thisS.getPoint1().getX(), evaluateYGivenX(a, b, e, thisS.getPoint1().getX()));
-        }
-        if (that.isVertical())
-        {
-            makeLine(thisS.getPoint1().getX(), thisS.getPoint1().getY(), thisS.getPoint2().getX(), thisS.getPoint2().getY(), out);
-            a = out.getFirst();
-            b = out.getSecond();
-            e = out.getThird();
-            return new Point(name, that.getPoint1().getX(), evaluateYGivenX(a, b, e, that.getPoint1().getX()));
-        }
-        if (thisS.isHorizontal())
-        {
-            makeLine(that.getPoint1().getX(), that.getPoint1().getY(), that.getPoint2().getX(), that.getPoint2().getY(), out);
-            a = out.getFirst();
-            b = out.getSecond();
-            e = out.getThird();
+        return intersection(thisS, that, new double[2]);
+    }
 
-            return new Point(name, evaluateXGivenY(a, b, e, thisS.getPoint1().getY()), thisS.getPoint1().getY());
-        }
-        if (that.isHorizontal())
+    /*
+     * <Line, Line> intersection with a caller-owned buffer (for callers in a loop)
+     * @param xy -- (scratch) reused across calls; receives the intersection coordinates
+     * @return the point at which these lines (infinite) intersection; null for coinciding lines
+     */
+    public static Point intersection(Segment thisS, Segment that, double[] xy)
+    {
+        switch (intersect(thisS, that, xy))
         {
-            makeLine(thisS.getPoint1().getX(), thisS.getPoint1().getY(), thisS.getPoint2().getX(), thisS.getPoint2().getY(), out);
-            a = out.getFirst();
-            b = out.getSecond();
-            e = out.getThird();
-
-            return new Point(name, evaluateXGivenY(a, b, e, that.getPoint1().getY()), that.getPoint1().getY());
+            case LineIntersectionKernel.VERTEX: return thisS.sharedVertex(that);
+            case LineIntersectionKernel.POINT:  return new Point("", xy[0], xy[1]);
+            default:                            return null;
         }
-
-        //
-        // ax + by = e
-        // cx + dy = f
-        // 
-
-        makeLine(thisS.getPoint1().getX(), thisS.getPoint1().getY(), thisS.getPoint2().getX(), thisS.getPoint2().getY(), out);
-        a = out.getFirst();
-        b = out.getSecond();
-        e = out.getThird();
-
-        makeLine(that.getPoint1().getX(), that.getPoint1().getY(), that.getPoint2().getX(), that.getPoint2().getY(), out);
-        c = out.getFirst();
-        d = out.getSecond();
-        f = out.getThird();
-
-        
-        double overallDeterminant = a * d - b * c;
-        double x = determinant(e, b, f, d) / overallDeterminant;
-        double y = determinant(a, e, c, f) / overallDeterminant;
-
-        return new Point(name, x, y);
-    }
-    
-    //
-    // Determine the intersection point of the two segments
-    //
-    //
-    // | a b |
-    // | c d |
-    //
-    private static double determinant(double a, double b, double c, double d)
-    {
-        return a * d - b * c;
     }
 
-    private static void makeLine(double x_1, double y_1, double x_2, double y_2, OutTriple<Double, Double, Double> out)
+    /*
+     * <Line, Line> intersection without allocation
+     * @param xy -- (out) a caller-owned buffer receiving the intersection coordinates
+     * @return LineIntersectionKernel.PARALLEL, VERTEX or POINT
+     */
+    public static int intersect(Segment thisS, Segment that, double[] xy)
     {
-        double slope = (y_2 - y_1) / (x_2 - x_1);
-        double a = - slope;
-        double b = 1;
-        double c = y_2 - slope * x_2;
+        Point p1 = thisS.getPoint1();
+        Point p2 = thisS.getPoint2();
+        Point q1 = that.getPoint1();
+        Point q2 = that.getPoint2();
 
-        out.set(a, b, c);
+        return LineIntersectionKernel.intersect(p1.getX(), p1.getY(), p2.getX(), p2.getY(),
+                                                q1.getX(), q1.getY(), q2.getX(), q2.getY(), xy);
     }
 
-    private static double evaluateYGivenX(double a, double b, double e, double x)
+    /*
+     * <Line, Line> intersection in exact arithmetic
+     *
+     *     P = P1 + t (P2 - P1)   where   t = ((Q1 - P1) x (Q2 - Q1)) / ((P2 - P1) x (Q2 - Q1))
+     *
+     * @param thisS -- a Segment with integer endpoints
+     * @param that -- a Segment with integer endpoints
+     * @return the exact point at which these lines (infinite) intersect; null for parallel lines
+     */
+    public static RationalPoint exactIntersection(Segment thisS, Segment that)
     {
-        // ax + by = e
-        return (e - a * x) / b;
+        if (!isIntegral(thisS) || !isIntegral(that)) throw new IllegalArgumentException("non-integer endpoints");
+
+        Point p1 = thisS.getPoint1();
+        Point p2 = thisS.getPoint2();
+        Point q1 = that.getPoint1();
+        Point q2 = that.getPoint2();
+
+        return LineIntersectionKernel.exactIntersection((long) p1.getX(), (long) p1.getY(), (long) p2.getX(), (long) p2.getY(),
+                                                        (long) q1.getX(), (long) q1.getY(), (long) q2.getX(), (long) q2.getY());
     }
 
-    private static double evaluateXGivenY(double a, double b, double e, double y)
+    private static boolean isIntegral(Segment segment)
     {
-        // ax + by = e
-        return (e - b * y) / a;
+        return RationalPoint.isIntegral(segment.getPoint1()) && RationalPoint.isIntegral(segment.getPoint2());
     }
 }
@@ -0,0 +1,146 @@
+package geometry_objects.delegates.intersections;
+
+import geometry_objects.points.RationalPoint;
+import utilities.math.MathUtilities;
+import utilities.math.Rational;
+
+/**
+ * <Line, Line> intersection on raw coordinates.
+ *
+ * The lines through (x1, y1)-(x2, y2) and (x3, y3)-(x4, y4) are intersected
+ * without creating any objects: the outcome is a status code and the
+ * coordinates are written to a buffer owned by the caller,
+ *
+ *     double[] xy = new double[2];
+ *     if (intersect(..., xy) == POINT) ... new Point(xy[0], xy[1]) ...
+ *
+ * so a Point is only allocated by the caller, when there is a point.
+ *
+ * Intersections of integer coordinates are exact: the result is the double
+ * nearest to the rational intersection point (as for RationalPoint).
+ */
+public class LineIntersectionKernel
+{
+    // parallel (or coinciding) lines: no single intersection point
+    public static final int PARALLEL = 0;
+
+    // the segments share an endpoint, written to the buffer
+    public static final int VERTEX = 1;
+
+    // the lines cross at the point written to the buffer
+    public static final int POINT = 2;
+
+    //
+    // For integers up to 2^15 in magnitude, every product and sum below is an
+    // integer under 2^53: computed exactly in doubles, with one (correctly
+    // rounded) division at the end.
+    //
+    private static final double EXACT_LIMIT = 1 << 15;
+
+    /**
+     * @param xy -- (out) the intersection point when the status is VERTEX or POINT
+     * @return PARALLEL, VERTEX or POINT
+     */
+    public static int intersect(double x1, double y1, double x2, double y2,
+                                double x3, double y3, double x4, double y4, double[] xy)
+    {
+        double dx1 = x2 - x1;
+        double dy1 = y2 - y1;
+        double dx2 = x4 - x3;
+        double dy2 = y4 - y3;
+
+        double cross = dx1 * dy2 - dy1 * dx2;
+
+        // coordinates are truncated: a shared endpoint has identical coordinates
+        // (segments through a shared endpoint lie on one line exactly when cross is 0)
+        if (cross != 0) {
+            if ((x1 == x3 && y1 == y3) || (x1 == x4 && y1 == y4)) return set(xy, x1, y1, VERTEX);
+            if ((x2 == x3 && y2 == y3) || (x2 == x4 && y2 == y4)) return set(xy, x2, y2, VERTEX);
+        }
+
+        if (MathUtilities.doubleEquals(cross, 0)) return PARALLEL;
+
+        //
+        //     P = P1 + t (P2 - P1)   where   t = ((P3 - P1) x (P4 - P3)) / ((P2 - P1) x (P4 - P3))
+        //
+        double t = (x3 - x1) * dy2 - (y3 - y1) * dx2;
+
+        if (isSmallInteger(x1, y1, x2, y2) && isSmallInteger(x3, y3, x4, y4)) {
+            return set(xy, (x1 * cross + t * dx1) / cross, (y1 * cross + t * dy1) / cross, POINT);
+        }
+
+        if (isIntegral(x1, y1, x2, y2) && isIntegral(x3, y3, x4, y4)) {
+            RationalPoint exact = exactIntersection((long) x1, (long) y1, (long) x2, (long) y2,
+                                                    (long) x3, (long) y3, (long) x4, (long) y4);
+
+            return set(xy, exact.getX().doubleValue(), exact.getY().doubleValue(), POINT);
+        }
+
+        t /= cross;
+
+        // a vertical or horizontal line fixes one coordinate exactly
+        double x = dx2 == 0 ? x3 : (dx1 == 0 ? x1 : x1 + t * dx1);
+        double y = dy2 == 0 ? y3 : (dy1 == 0 ? y1 : y1 + t * dy1);
+
+        return set(xy, x, y, POINT);
+    }
+
+    private static int set(double[] xy, double x, double y, int status)
+    {
+        xy[0] = x;
+        xy[1] = y;
+
+        return status;
+    }
+
+    private static boolean isSmallInteger(double x1, double y1, double x2, double y2)
+    {
+        return isSmallInteger(x1) && isSmallInteger(y1) && isSmallInteger(x2) && isSmallInteger(y2);
+    }
+
+    private static boolean isSmallInteger(double v) { return v == Math.rint(v) && Math.abs(v) <= EXACT_LIMIT; }
+
+    private static boolean isIntegral(double x1, double y1, double x2, double y2)
+    {
+        return Rational.isIntegral(x1) && Rational.isIntegral(y1) && Rational.isIntegral(x2) && Rational.isIntegral(y2);
+    }
+
+    /**
+     * <Line, Line> intersection in exact arithmetic (integer coordinates of any size)
+     *
+     * @return the exact intersection point; null for parallel lines
+     */
+    public static RationalPoint exactIntersection(long x1, long y1, long x2, long y2,
+                                                  long x3, long y3, long x4, long y4)
+    {
+        // small integers: every product and sum fits in a long (see EXACT_LIMIT)
+        if (isSmallInteger(x1, y1, x2, y2) && isSmallInteger(x3, y3, x4, y4)) {
+            long dx1 = x2 - x1;
+            long dy1 = y2 - y1;
+            long dx2 = x4 - x3;
+            long dy2 = y4 - y3;
+
+            long cross = dx1 * dy2 - dy1 * dx2;
+            if (cross == 0) return null;
+
+            long t = (x3 - x1) * dy2 - (y3 - y1) * dx2;
+
+            return new RationalPoint(Rational.of(x1 * cross + t * dx1, cross), Rational.of(y1 * cross + t * dy1, cross));
+        }
+
+        Rational dx1 = Rational.of(x2).subtract(Rational.of(x1));
+        Rational dy1 = Rational.of(y2).subtract(Rational.of(y1));
+        Rational dx2 = Rational.of(x4).subtract(Rational.of(x3));
+        Rational dy2 = Rational.of(y4).subtract(Rational.of(y3));
+
+        Rational cross = dx1.multiply(dy2).subtract(dy1.multiply(dx2));
+        if (cross.signum() == 0) return null;
+
+        Rational wx = Rational.of(x3).subtract(Rational.of(x1));
+        Rational wy = Rational.of(y3).subtract(Rational.of(y1));
+
+        Rational t = wx.multiply(dy2).subtract(wy.multiply(dx2)).divide(cross);
+
+        return new RationalPoint(Rational.of(x1).add(t.multiply(dx1)), Rational.of(y1).add(t.multiply(dy1)));
+    }
+}
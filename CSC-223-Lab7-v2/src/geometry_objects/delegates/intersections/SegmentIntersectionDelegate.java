@@ -3,6 +3,8 @@ package geometry_objects.delegates.intersections;
 import geometry_objects.delegates.FigureDelegate;
 import geometry_objects.points.Point;
 import geometry_objects.Segment;
+import utilities.math.MathUtilities;
+import utilities.math.analytic_geometry.GeometryPredicates;
 
 public class SegmentIntersectionDelegate extends FigureDelegate
 {
@@ -14,15 +16,160 @@ public class SegmentIntersectionDelegate extends FigureDelegate
      */
     public static Point findIntersection(Segment thisS, Segment that)
     {
-        // <line, line> intersection
-        Point inter = LineIntersectionDelegate.intersection(thisS, that);
- 
-        // Point lies on both segments
-        
-        if (!thisS.pointLiesBetweenEndpoints(inter)) return null;
+        // Segments with disjoint bounding boxes cannot meet (most pairs in a figure)
+        if (!thisS.boundsOverlap(that)) return null;
 
-        if (!that.pointLiesBetweenEndpoints(inter)) return null;
-        
-        return inter;        
+        // Point lies on both segments: decided exactly from the endpoints before any point is computed
+        if (!GeometryPredicates.crossInMiddle(thisS.getPoint1(), thisS.getPoint2(),
+                                              that.getPoint1(), that.getPoint2())) return null;
+
+        return crossingPoint(thisS, that);
+    }
+
+    /*
+     * <Segment, Segment> intersection without allocating a Point.
+     * @param xy -- (out) the coordinates of the intersection, truncated as a Point's are
+     * @return true if the segments intersect (as findIntersection)
+     */
+    public static boolean findIntersection(Segment thisS, Segment that, double[] xy)
+    {
+        if (!thisS.boundsOverlap(that)) return false;
+
+        if (!GeometryPredicates.crossInMiddle(thisS.getPoint1(), thisS.getPoint2(),
+                                              that.getPoint1(), that.getPoint2())) return false;
+
+        return crossing(thisS, that, xy) == CROSSING;
+    }
+
+    /*
+     * @param thisS -- (this Segment)
+     * @param that -- a Segment known to cross thisS in the middle of both (GeometryPredicates.crossInMiddle)
+     * @return the crossing point; null if it lies at (or within tolerance of) an endpoint
+     */
+    public static Point crossingPoint(Segment thisS, Segment that)
+    {
+        return crossingPoint(thisS, that, new double[2]);
+    }
+
+    /*
+     * The crossing point with a caller-owned buffer (for callers in a loop).
+     * @param xy -- (scratch) reused across calls; receives the coordinates of the crossing point,
+     *              truncated as a Point's are
+     * @return the crossing point; null if there is none in the middle of both segments
+     */
+    public static Point crossingPoint(Segment thisS, Segment that, double[] xy)
+    {
+        return crossing(thisS, that, xy) == CROSSING ? new Point("", xy[0], xy[1]) : null;
+    }
+
+    //
+    // How two segments meet (other than at a shared endpoint or along a shared line):
+    //
+    //        \  /                 |                  |
+    //         \/                  |                  |
+    //         /\             -----+                   +-----
+    //        /  \                 |                  |
+    //
+    //      CROSSING          SPLITS_FIRST        SPLITS_SECOND
+    //                   (an endpoint of the   (an endpoint of the
+    //                    second in the middle  first in the middle
+    //                    of the first)         of the second)
+    //
+    public static final int NONE = 0;
+    public static final int CROSSING = 1;
+    public static final int SPLITS_FIRST = 2;
+    public static final int SPLITS_SECOND = 3;
+
+    /*
+     * <Segment, Segment> meeting point.
+     * @param thisS -- (this Segment)
+     * @param that -- a Segment to meet
+     * @param xy -- (out) where the segments meet: a crossing point truncated as a Point's are,
+     *              or the exact coordinates of the endpoint in the middle of the other segment
+     * @return how the segments meet; NONE if they do not
+     */
+    public static int meet(Segment thisS, Segment that, double[] xy)
+    {
+        if (!thisS.boundsOverlap(that)) return NONE;
+
+        if (GeometryPredicates.crossInMiddle(thisS.getPoint1(), thisS.getPoint2(),
+                                             that.getPoint1(), that.getPoint2())) return crossing(thisS, that, xy);
+
+        // collinear segments overlap (or not) rather than stand on one another
+        if (thisS.isCollinearWith(that)) return NONE;
+
+        Point standing = endpointInMiddle(that, thisS);
+        if (standing != null) return snap(standing, xy, SPLITS_FIRST);
+
+        standing = endpointInMiddle(thisS, that);
+        if (standing != null) return snap(standing, xy, SPLITS_SECOND);
+
+        return NONE;
+    }
+
+    /*
+     * The meeting of two segments known to cross in the middle of both. A crossing
+     * point within GeometryPredicates.TOLERANCE of an endpoint cannot be told apart
+     * from it (the endpoint lies on the other segment up to rounding): the crossing
+     * is snapped to that endpoint, which splits the other segment instead.
+     */
+    private static int crossing(Segment thisS, Segment that, double[] xy)
+    {
+        if (LineIntersectionDelegate.intersect(thisS, that, xy) != LineIntersectionKernel.POINT) return NONE;
+
+        xy[0] = MathUtilities.removeLessEpsilon(xy[0]);
+        xy[1] = MathUtilities.removeLessEpsilon(xy[1]);
+
+        Point nearThis = nearEndpoint(thisS, xy);
+        Point nearThat = nearEndpoint(that, xy);
+
+        // (near endpoints of both: the segments all but share a vertex)
+        if (nearThis != null && nearThat != null) return NONE;
+
+        if (nearThis != null) return snap(nearThis, xy, SPLITS_SECOND);
+        if (nearThat != null) return snap(nearThat, xy, SPLITS_FIRST);
+
+        return CROSSING;
+    }
+
+    // the endpoint of the segment within tolerance of (x, y); null if there is none
+    private static Point nearEndpoint(Segment segment, double[] xy)
+    {
+        for (Point endpoint : new Point[] { segment.getPoint1(), segment.getPoint2() }) {
+            double dx = endpoint.getX() - xy[0];
+            double dy = endpoint.getY() - xy[1];
+
+            if (dx * dx + dy * dy <= GeometryPredicates.TOLERANCE * GeometryPredicates.TOLERANCE) return endpoint;
+        }
+
+        return null;
+    }
+
+    private static int snap(Point endpoint, double[] xy, int meeting)
+    {
+        xy[0] = endpoint.getX();
+        xy[1] = endpoint.getY();
+
+        return meeting;
+    }
+
+    // the endpoint of thisS lying (exactly) strictly between the endpoints of that (a T-junction); null if there is none
+    private static Point endpointInMiddle(Segment thisS, Segment that)
+    {
+        for (Point endpoint : new Point[] { thisS.getPoint1(), thisS.getPoint2() }) {
+            if (!that.has(endpoint) && GeometryPredicates.between(endpoint, that.getPoint1(), that.getPoint2())) return endpoint;
+        }
+
+        return null;
+    }
+
+    /*
+     * @return the endpoint of the segment at xy (as found by meet)
+     */
+    public static Point endpoint(Segment segment, double[] xy)
+    {
+        Point pt1 = segment.getPoint1();
+
+        return pt1.getX() == xy[0] && pt1.getY() == xy[1] ? pt1 : segment.getPoint2();
     }
 }
@@ -0,0 +1,513 @@
+package geometry_objects.points;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import utilities.math.MathUtilities;
+
+/**
+ * A point database for very large figures: points are stored in columns of
+ * primitives rather than as Point objects.
+ *
+ *     id       0      1      2    ...
+ *     x      [ 0.0,   4.0,   2.5, ... ]
+ *     y      [ 0.0,   0.0,   2.5, ... ]
+ *     name   [ "A",   "B",   *_A, ... ]   (characters of all names in one table;
+ *                                          generated names are only a number)
+ *
+ * Each point is identified by an int id (its insertion position); ids do not
+ * change when other points are removed. Coordinates are found through an
+ * open-addressing hash table keyed on the coordinates quantized to the
+ * precision of Point (two points are equal exactly when their quantized
+ * coordinates are).
+ *
+ * The PointDatabase API behaves as it does for the object-based database:
+ * same names and same generated names. Points are iterated in insertion order;
+ * a point whose generated name is replaced keeps its place (and id) rather
+ * than moving to the end. Point objects are created as they are asked for.
+ */
+public class ColumnarPointDatabase extends PointDatabase
+{
+	// Point keeps EPSILON_POWER - 1 decimal places
+	private static final double SCALE = Math.pow(10, MathUtilities.EPSILON_POWER - 1);
+
+	private static final int EMPTY = 0;
+	private static final int REMOVED = -1;
+
+	// name kinds
+	private static final int UNNAMED = -1;
+	private static final int GENERATED = -2;
+
+	// columns, indexed by id
+	protected double[] _xs;
+	protected double[] _ys;
+	protected int[] _nameStart;  // offset in _chars; UNNAMED; GENERATED
+	protected int[] _nameLength; // length in _chars; for a GENERATED name, its position in the sequence
+	protected boolean[] _removed;
+
+	protected int _count; // ids handed out
+	protected int _size;  // points in the database
+
+	// characters of every (non-generated) name, back to back
+	protected char[] _chars;
+	protected int _charCount;
+
+	// open addressing: id + 1, EMPTY or REMOVED
+	protected int[] _table;
+	protected int _used; // slots which are not EMPTY
+
+	// the next generated name
+	protected int _generated;
+
+	// name -> ids of the points given that name, in the order they were given it;
+	// built on the first lookup by name, then kept up to date by put and remove
+	protected Map<String, List<Integer>> _names;
+
+	public ColumnarPointDatabase()
+	{
+		this(16);
+	}
+
+	/**
+	 * @param capacity -- the number of points expected
+	 */
+	public ColumnarPointDatabase(int capacity)
+	{
+		super((PointNamingFactory) null);
+
+		capacity = Math.max(capacity, 1);
+
+		_xs = new double[capacity];
+		_ys = new double[capacity];
+		_nameStart = new int[capacity];
+		_nameLength = new int[capacity];
+		_removed = new boolean[capacity];
+		_chars = new char[capacity];
+		_table = new int[tableSize(capacity)];
+	}
+
+	public ColumnarPointDatabase(List<Point> points)
+	{
+		this(points.size());
+
+		for (Point point : points) store(point);
+	}
+
+	// smallest power of 2 keeping the table at most half full
+	private static int tableSize(int capacity)
+	{
+		return Integer.highestOneBit(Math.max(2 * capacity, 8) - 1) << 1;
+	}
+
+	@Override
+	public Set<Point> getPoints()
+	{
+		return new AbstractSet<Point>()
+		{
+			@Override
+			public int size() { return _size; }
+
+			@Override
+			public boolean contains(Object obj)
+			{
+				return obj instanceof Point && getId((Point) obj) != -1;
+			}
+
+			@Override
+			public Iterator<Point> iterator()
+			{
+				return new Iterator<Point>()
+				{
+					private int _next = skipRemoved(0);
+
+					@Override
+					public boolean hasNext() { return _next < _count; }
+
+					@Override
+					public Point next()
+					{
+						if (!hasNext()) throw new NoSuchElementException();
+
+						Point pt = getPoint(_next);
+						_next = skipRemoved(_next + 1);
+
+						return pt;
+					}
+				};
+			}
+		};
+	}
+
+	private int skipRemoved(int id)
+	{
+		while (id < _count && _removed[id]) id++;
+
+		return id;
+	}
+
+	@Override
+	public int size() { return _size; }
+
+	@Override
+	public void put(String name, double x, double y) { putNamed(name, x, y); }
+
+	@Override
+	public void put(Point pt) { store(pt); }
+
+	// (private: the constructor adds points with it)
+	private int store(Point pt)
+	{
+		// an unnamed point is given the next generated name (as PointNamingFactory does)
+		if (pt.isUnnamed()) return putGenerated(pt.getX(), pt.getY());
+
+		return putNamed(pt.getName(), pt.getX(), pt.getY());
+	}
+
+	/**
+	 * Adds a point (or renames the point at (x, y) if its name is generated).
+	 *
+	 * @return the id of the point at (x, y)
+	 */
+	public int putId(String name, double x, double y) { return putNamed(name, x, y); }
+
+	private int putNamed(String name, double x, double y)
+	{
+		if (name == null || name.isEmpty()) name = Point.ANONYMOUS;
+
+		return put(MathUtilities.removeLessEpsilon(x), MathUtilities.removeLessEpsilon(y), name, 0);
+	}
+
+	private int putGenerated(double x, double y)
+	{
+		return put(MathUtilities.removeLessEpsilon(x), MathUtilities.removeLessEpsilon(y), null, _generated++);
+	}
+
+	/*
+	 * @param name -- the name of the point; null for the generated name number generated
+	 */
+	private int put(double x, double y, String name, int generated)
+	{
+		int id = find(x, y);
+
+		if (id == -1) {
+			id = append(x, y);
+			setName(id, name, generated);
+			insert(id);
+		}
+		else if (isGenerated(id) && name != null && !name.equals(Point.ANONYMOUS) && !PointNamingFactory.isGeneratedName(name)) {
+			// a valid name overwrites a generated name (an unnamed or generated one does not)
+			if (_names != null) unindex(id);
+			setName(id, name, generated);
+		}
+
+		return id;
+	}
+
+	private int append(double x, double y)
+	{
+		if (_count == _xs.length) grow();
+
+		int id = _count++;
+		_xs[id] = x;
+		_ys[id] = y;
+		_size++;
+
+		return id;
+	}
+
+	private void grow()
+	{
+		int capacity = _xs.length * 2;
+
+		_xs = Arrays.copyOf(_xs, capacity);
+		_ys = Arrays.copyOf(_ys, capacity);
+		_nameStart = Arrays.copyOf(_nameStart, capacity);
+		_nameLength = Arrays.copyOf(_nameLength, capacity);
+		_removed = Arrays.copyOf(_removed, capacity);
+	}
+
+	private void setName(int id, String name, int generated)
+	{
+		setNameColumns(id, name, generated);
+
+		if (_names != null) index(id);
+	}
+
+	private void setNameColumns(int id, String name, int generated)
+	{
+		if (name == null) {
+			_nameStart[id] = GENERATED;
+			_nameLength[id] = generated;
+		}
+		else if (name.equals(Point.ANONYMOUS)) {
+			_nameStart[id] = UNNAMED;
+			_nameLength[id] = 0;
+		}
+		else {
+			storeChars(id, name);
+		}
+	}
+
+	// generated here, or a generated name copied from another database
+	private boolean isGenerated(int id)
+	{
+		return _nameStart[id] == GENERATED ||
+			   _nameStart[id] >= 0 && _nameLength[id] >= 2 && _chars[_nameStart[id]] == '*' && _chars[_nameStart[id] + 1] == '_';
+	}
+
+	private void storeChars(int id, String name)
+	{
+		if (_charCount + name.length() > _chars.length) {
+			_chars = Arrays.copyOf(_chars, Math.max(2 * _chars.length, _charCount + name.length()));
+		}
+
+		name.getChars(0, name.length(), _chars, _charCount);
+
+		_nameStart[id] = _charCount;
+		_nameLength[id] = name.length();
+		_charCount += name.length();
+	}
+
+	@Override
+	public Point remove(Point pt)
+	{
+		int id = getId(pt);
+		if (id == -1) return null;
+
+		Point removed = getPoint(id);
+
+		if (_names != null) unindex(id);
+
+		_table[slotOf(id)] = REMOVED;
+		_removed[id] = true;
+		_size--;
+
+		return removed;
+	}
+
+	@Override
+	public String getName(double x, double y)
+	{
+		int id = getId(x, y);
+
+		return id == -1 ? null : getName(id);
+	}
+
+	@Override
+	public String getName(Point pt)
+	{
+		int id = getId(pt);
+
+		return id == -1 ? null : getName(id);
+	}
+
+	@Override
+	public Point getPoint(String name)
+	{
+		int id = getId(name);
+
+		return id == -1 ? null : getPoint(id);
+	}
+
+	@Override
+	public Point getPoint(Point pt)
+	{
+		int id = getId(pt);
+
+		return id == -1 ? null : getPoint(id);
+	}
+
+	@Override
+	public Point getPoint(double x, double y)
+	{
+		int id = getId(x, y);
+
+		return id == -1 ? null : getPoint(id);
+	}
+
+	/*
+	 * Id-based access
+	 */
+
+	/**
+	 * @return the id of the point at (x, y); -1 if there is none
+	 */
+	public int getId(double x, double y)
+	{
+		return find(MathUtilities.removeLessEpsilon(x), MathUtilities.removeLessEpsilon(y));
+	}
+
+	/**
+	 * @return the id of the point at the coordinates of pt; -1 if there is none
+	 */
+	public int getId(Point pt)
+	{
+		return pt == null ? -1 : find(pt.getX(), pt.getY());
+	}
+
+	/**
+	 * @return the id of the first point given the name; -1 if there is none
+	 */
+	public int getId(String name)
+	{
+		if (_names == null) {
+			_names = new HashMap<String, List<Integer>>();
+
+			for (int id = skipRemoved(0); id < _count; id = skipRemoved(id + 1)) index(id);
+		}
+
+		List<Integer> ids = _names.get(name);
+
+		return ids == null ? -1 : ids.get(0);
+	}
+
+	private void index(int id)
+	{
+		_names.computeIfAbsent(nameOf(id), (name) -> new ArrayList<Integer>(1)).add(id);
+	}
+
+	// (before the point is removed or renamed)
+	private void unindex(int id)
+	{
+		String name = nameOf(id);
+		List<Integer> ids = _names.get(name);
+
+		ids.remove(Integer.valueOf(id));
+		if (ids.isEmpty()) _names.remove(name);
+	}
+
+	public double getX(int id) { return _xs[checked(id)]; }
+	public double getY(int id) { return _ys[checked(id)]; }
+
+	public String getName(int id) { return nameOf(checked(id)); }
+
+	// (private: reached from the constructor)
+	private String nameOf(int id)
+	{
+		switch (_nameStart[id]) {
+			case UNNAMED: return Point.ANONYMOUS;
+			case GENERATED: return PointNamingFactory.generatedName(_nameLength[id]);
+			default: return new String(_chars, _nameStart[id], _nameLength[id]);
+		}
+	}
+
+	/**
+	 * @return a Point object for the point with the given id
+	 */
+	public Point getPoint(int id) { return new Point(getName(id), getX(id), getY(id)); }
+
+	/**
+	 * @return one more than the largest id handed out (ids of removed points are not reused)
+	 */
+	public int idLimit() { return _count; }
+
+	public boolean contains(int id) { return isStored(id); }
+
+	private boolean isStored(int id) { return id >= 0 && id < _count && !_removed[id]; }
+
+	private int checked(int id)
+	{
+		if (!isStored(id)) throw new IllegalArgumentException("no point with id " + id);
+
+		return id;
+	}
+
+	/*
+	 * Hash index
+	 */
+
+	private static long quantize(double coordinate) { return Math.round(coordinate * SCALE); }
+
+	private static int hash(long qx, long qy)
+	{
+		long h = qx * 0x9E3779B97F4A7C15L + qy;
+		h ^= h >>> 32;
+		h *= 0xC2B2AE3D27D4EB4FL;
+
+		return (int) (h ^ (h >>> 29));
+	}
+
+	private int hashOf(int id) { return hash(quantize(_xs[id]), quantize(_ys[id])); }
+
+	/*
+	 * @param x, y -- truncated coordinates
+	 * @return the id of the point at (x, y); -1 if there is none
+	 */
+	private int find(double x, double y)
+	{
+		long qx = quantize(x);
+		long qy = quantize(y);
+		int mask = _table.length - 1;
+
+		for (int slot = hash(qx, qy) & mask; _table[slot] != EMPTY; slot = (slot + 1) & mask) {
+			int id = _table[slot] - 1;
+
+			if (id >= 0 && quantize(_xs[id]) == qx && quantize(_ys[id]) == qy) return id;
+		}
+
+		return -1;
+	}
+
+	private int slotOf(int id)
+	{
+		int mask = _table.length - 1;
+		int slot = hashOf(id) & mask;
+
+		while (_table[slot] != id + 1) slot = (slot + 1) & mask;
+
+		return slot;
+	}
+
+	private void insert(int id)
+	{
+		// rebuild (dropping REMOVED slots) before the table is more than half full;
+		// grow it when more than a quarter of it holds points
+		if (2 * (_used + 1) > _table.length) {
+			rehash(4 * _size > _table.length ? 2 * _table.length : _table.length, id);
+		}
+
+		int mask = _table.length - 1;
+		int slot = hashOf(id) & mask;
+
+		while (_table[slot] > EMPTY) slot = (slot + 1) & mask;
+
+		if (_table[slot] == EMPTY) _used++;
+		_table[slot] = id + 1;
+	}
+
+	/*
+	 * Rebuild the table with the points of ids [0, limit)
+	 */
+	private void rehash(int size, int limit)
+	{
+		_table = new int[size];
+		_used = 0;
+
+		int mask = size - 1;
+
+		for (int id = skipRemoved(0); id < limit; id = skipRemoved(id + 1)) {
+			int slot = hashOf(id) & mask;
+			while (_table[slot] != EMPTY) slot = (slot + 1) & mask;
+
+			_table[slot] = id + 1;
+			_used++;
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder out = new StringBuilder();
+
+		for (Point point : getPoints()) out.append(point).append("\n");
+
+		return out.toString();
+	}
+}
@@ -26,12 +26,22 @@ public class Point implements Comparable<Point>
 	protected double _y; 
 	public double getY() { return this._y; }
 
+	// null until a generated name is read (see _generatedIndex)
 	protected String _name; 
-	public String getName() { return _name; }
+	public String getName()
+	{
+		if (_name == null) _name = PointNamingFactory.generatedName(_generatedIndex);
+
+		return _name;
+	}
 
 	// BasicPoint objects are named points (from input)
 	// ImpliedPoint objects are unnamed points (from input)
-	public boolean isGenerated() { return _name.substring(0, 2).equals("*_"); }
+	protected boolean _isGenerated;
+	public boolean isGenerated() { return _isGenerated; }
+
+	// position of the name in the sequence of generated names; -1 if the name is spelled out
+	protected int _generatedIndex = -1;
 
 	/**
 	 * Create a new Point with the specified coordinates.
@@ -52,10 +62,37 @@ public class Point implements Comparable<Point>
 	public Point(String name, double x, double y)
 	{
 		_name = (name == null || name == "") ? ANONYMOUS : name;
+		_isGenerated = PointNamingFactory.isGeneratedName(_name);
 		_x = MathUtilities.removeLessEpsilon(x);
 		_y = MathUtilities.removeLessEpsilon(y);
 	}
 
+	/**
+	 * Create a new Point named with a generated name; the name is only
+	 * spelled out when it is read.
+	 * @param generatedIndex -- position of the name in the sequence of generated names
+	 * @param x -- The X coordinate
+	 * @param y -- The Y coordinate
+	 */
+	Point(int generatedIndex, double x, double y)
+	{
+		_name = null;
+		_isGenerated = true;
+		_generatedIndex = generatedIndex;
+		_x = MathUtilities.removeLessEpsilon(x);
+		_y = MathUtilities.removeLessEpsilon(y);
+	}
+
+	/**
+	 * Give this point the name of another point.
+	 */
+	void rename(Point that)
+	{
+		_name = that._name;
+		_isGenerated = that._isGenerated;
+		_generatedIndex = that._generatedIndex;
+	}
+
 	/**
 	 * @return if this point has not user-defined name associated with it
 	 */
@@ -64,11 +101,18 @@ public class Point implements Comparable<Point>
 		return _name == ANONYMOUS;
 	}
 
+	/**
+	 * Consistent with equals: coordinates are truncated to a grid of spacing
+	 * 10^-(EPSILON_POWER - 1), wider than EPSILON, so points within EPSILON of
+	 * each other are on the same grid point and have identical coordinates.
+	 */
 	@Override
 	public int hashCode()
 	{
-		return Double.valueOf(MathUtilities.removeLessEpsilon(_x)).hashCode() +
-			   Double.valueOf(MathUtilities.removeLessEpsilon(_y)).hashCode();
+		// integral coordinates differ only in the high bits of their doubles: mix them down
+		long h = Double.doubleToLongBits(_x) * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(_y);
+
+		return (int) (h ^ (h >>> 32));
 	}
 
 	/**
@@ -127,7 +171,7 @@ public class Point implements Comparable<Point>
 
 	@Override
 	public String toString() {
-		String outName = _name;
+		String outName = getName();
 		String outX = _x + "";
 		String outY = _y + "";
     	
@@ -24,6 +24,14 @@ public class PointDatabase {
 		_factory = new PointNamingFactory(points);
 	}
 
+	/**
+	 * For subclasses which keep the points themselves.
+	 * @param factory -- the naming factory backing the inherited methods; null if every one is overridden
+	 */
+	protected PointDatabase(PointNamingFactory factory) {
+		_factory = factory;
+	}
+
 	public int size() { return _factory.size(); }
 
 	/**
@@ -41,31 +49,36 @@ public class PointDatabase {
 	 **/
 	public void put(Point n) { _factory.put(n); }
 
+	/**
+	 * Removes the point at the coordinates of a point from the database.
+	 * @param pt -- a point
+	 * @return the removed database entry (null if there was none)
+	 **/
+	public Point remove(Point pt) { return _factory.remove(pt); }
+
 
 	/**
-	 * Determines if a point is named based off of a specified pair of coordinates.
+	 * Determines the name of the point at a specified pair of coordinates.
 	 * @param x,y -- doubles defining a point (x,y)
-	 * @return a string corresponding to that point, if it is named.
+	 * @return a string corresponding to that point (Point.ANONYMOUS if it is unnamed);
+	 *         null if there is no point at (x, y), as for getName(Point)
 	 * @throws NotInDatabaseException 
 	 **/
 	public String getName(double x, double y) throws NotInDatabaseException {
 		Point point = _factory.get(x, y);
-		if (point != null && !point.isUnnamed()) { 
-			return point.getName(); 
-		}
+		if (point != null) { return point.getName(); }
 		return null;
 	}
 
 	/**
 	 * Searches the database for the specified point and returns the name.
 	 * @param pt
-	 * @return a string corresponding to the point.
+	 * @return a string corresponding to the point (Point.ANONYMOUS if it is unnamed);
+	 *         null if it is not in the database
 	 **/
 	public String getName(Point pt) {
-		Set<Point> points = _factory.getAllPoints();
-		for (Point point : points) {
-			if (point.equals(pt)) { return point.getName(); }
-		}
+		Point point = _factory.get(pt);
+		if (point != null) { return point.getName(); }
 		return null;
 	}
 
@@ -75,10 +88,7 @@ public class PointDatabase {
 	 * @return a Point object containing (x,y) corresponding to name, if it has been defined.
 	 **/
 	public Point getPoint(String name) {
-		for (Point point : _factory.getAllPoints()) {
-			if (point.getName().equals(name)) { return point; }
-		}
-		return null;
+		return _factory.get(name);
 	}
 	
 	/**
@@ -1,5 +1,7 @@
 package geometry_objects.points;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,17 +22,12 @@ public class PointNamingFactory
 	private static final String _PREFIX = "*_";
 	private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
 
-    // Constants reflecting our naming characters for generated names.
-	// private static final char START_LETTER = 'A';		// never used
-	private static final char END_LETTER = 'Z';
-
-    //
-    // the number of characters in the generated names:
-	// "A" and 1 -> "A"
-	// "B" and 3 -> "BBB"
 	//
-	private String _currentName = "A";
-	private int _numLetters = 1;
+	// The number of generated names handed out; the next generated name is
+	// the one in this position of the sequence (see generatedName):
+	// 0 -> "A", 25 -> "Z", 26 -> "AA", 27 -> "BB"
+	//
+	private int _generatedCount = 0;
 
 	//
 	// A hashed container for the database of points; this requires the Point
@@ -40,9 +37,21 @@ public class PointNamingFactory
 	//
 	protected Map<Point, Point> _database;
 
+	//
+	// Secondary index: name -> the points given that name, in the order they
+	// were given it (almost always just one). Generated names are kept in
+	// _generatedPoints instead. store and remove keep both up to date.
+	//
+	protected Map<String, List<Point>> _names;
+
+	// position in the sequence of generated names -> the point with that (unspelled) name
+	protected List<Point> _generatedPoints;
+
 	public PointNamingFactory()
 	{
 		_database = new LinkedHashMap<>();
+		_names = new HashMap<>();
+		_generatedPoints = new ArrayList<>();
 	}
 
 	/**
@@ -52,7 +61,7 @@ public class PointNamingFactory
 	 */
 	public PointNamingFactory(List<Point> points)
 	{
-		_database = new LinkedHashMap<>();
+		this();
 
 		for (Point point : points) {
 			put(point);
@@ -70,9 +79,7 @@ public class PointNamingFactory
 	 */
 	public Point put(Point pt)
 	{
-		if (pt._name == Point.ANONYMOUS) {
-			return put(getCurrentName(), pt.getX(), pt.getY());
-		}
+		if (pt.isUnnamed()) return store(nextGeneratedPoint(pt.getX(), pt.getY()));
 
 		return put(pt.getName(), pt.getX(), pt.getY());
 	}
@@ -89,7 +96,7 @@ public class PointNamingFactory
 	 */
 	public Point put(double x, double y)
 	{
-		return put(getCurrentName(), x, y);
+		return store(nextGeneratedPoint(x, y));
 	}
 
 	/**
@@ -112,26 +119,32 @@ public class PointNamingFactory
 	 */
 	public Point put(String name, double x, double y)
 	{
-		Point pt = new Point(name, x, y);
-		
+		return store(new Point(name, x, y));
+	}
+
+	private Point store(Point pt)
+	{
+		Point stored = _database.get(pt);
+
 		// completely new point is added
-		if (!contains(pt)) {
+		if (stored == null) {
 			_database.put(pt, pt);
+			index(pt);
 			return pt;
 		}
 
-		pt = _database.get(pt);
-
-		// valid name overwrites unnamed name
-		if (pt._name.substring(0, 2).equals(_PREFIX)) {
-			_database.remove(pt);
+		// valid name overwrites generated name (an unnamed or generated one does not)
+		if (stored.isGenerated() && !pt.isUnnamed() && !pt.isGenerated()) {
+			_database.remove(stored);
+			unindex(stored);
 
-			pt._name = name;
-			_database.put(pt, pt);
+			stored.rename(pt);
+			_database.put(stored, stored);
+			index(stored);
 		}
 
-		return _database.get(pt);
-	}    
+		return stored;
+	}
 
 	/**
 	 * Strict access (read-only of the database)
@@ -146,13 +159,52 @@ public class PointNamingFactory
 	}	
 	public Point get(Point pt)
 	{
-		Set<Point> points = _database.keySet();
+		// Point.hashCode agrees with the epsilon-based equals: a hash lookup suffices
+		return pt == null ? null : _database.get(pt);
+	}
 
-		for (Point point : points) {
-			if (point.equals(pt)) return point;
+	/**
+	 * @param name -- a point name
+	 * @return the first point (still) given that name; null if there is none
+	 */
+	public Point get(String name)
+	{
+		int index = generatedIndex(name);
+
+		if (index >= 0 && index < _generatedPoints.size() && _generatedPoints.get(index) != null) {
+			return _generatedPoints.get(index);
+		}
+
+		List<Point> named = _names.get(name);
+
+		return named == null ? null : named.get(0);
+	}
+
+	private void index(Point pt)
+	{
+		// generated names are indexed by position; they are never spelled out here
+		if (pt._generatedIndex >= 0) {
+			while (_generatedPoints.size() <= pt._generatedIndex) _generatedPoints.add(null);
+
+			_generatedPoints.set(pt._generatedIndex, pt);
+			return;
 		}
 
-		return null;
+		_names.computeIfAbsent(pt.getName(), (name) -> new ArrayList<Point>(1)).add(pt);
+	}
+
+	// (before the point is removed or renamed)
+	private void unindex(Point pt)
+	{
+		if (pt._generatedIndex >= 0) {
+			_generatedPoints.set(pt._generatedIndex, null);
+			return;
+		}
+
+		List<Point> named = _names.get(pt.getName());
+
+		named.removeIf((point) -> point == pt);
+		if (named.isEmpty()) _names.remove(pt.getName());
 	}
 
 	/**
@@ -164,42 +216,47 @@ public class PointNamingFactory
 	public boolean contains(Point p) { return _database.containsKey(p); }
 
 	/**
-	 * Constructs the next (complete with prefix) generated name.
-	 * Names should be of the form PREFIX + current name
-	 *
-	 * This method should also invoke updating of the current name
-	 * to reflect the 'next' name in the sequence.
-     *	 
-	 * @return the next complete name in the sequence including prefix.
+	 * A point with the next generated name; advances the sequence of names.
 	 */
-	private String getCurrentName()
+	private Point nextGeneratedPoint(double x, double y)
 	{
-        String out = _PREFIX + _currentName;
+		return new Point(_generatedCount++, x, y);
+	}
 
-		updateName();
+	/**
+	 * The generated name in position index of the sequence (complete with prefix):
+	 *    0 -> *_A, 25 -> *_Z, 26 -> *_AA, 27 -> *_BB, ...
+	 *
+	 * @param index -- a position in the sequence of generated names (from 0)
+	 * @return the generated name (with prefix)
+	 */
+	static String generatedName(int index)
+	{
+		char letter = ALPHABET.charAt(index % ALPHABET.length());
+		int length = index / ALPHABET.length() + 1;
 
-		return out;
+		return _PREFIX + String.valueOf(letter).repeat(length);
 	}
 
+	static boolean isGeneratedName(String name) { return name.startsWith(_PREFIX); }
+
 	/**
-	 * Advances the current generated name to the next letter in the alphabet:
-	 * 'A' -> 'B' -> 'C' -> 'Z' --> 'AA' -> 'BB'
+	 * @return the position of a name in the sequence of generated names; -1 if it is not one
 	 */
-	private void updateName()
+	static int generatedIndex(String name)
 	{
-		char canonical = _currentName.charAt(0);
-
-		int indexOfNextChar = (ALPHABET.indexOf(canonical) + 1) % ALPHABET.length();
-		char c = ALPHABET.charAt(indexOfNextChar);
+		if (name == null || name.length() <= _PREFIX.length() || !isGeneratedName(name)) return -1;
 
-		if (canonical == END_LETTER) _numLetters++;
-		int n = _numLetters;
+		int length = name.length() - _PREFIX.length();
+		int letter = ALPHABET.indexOf(name.charAt(_PREFIX.length()));
 
-		_currentName = "";
+		if (letter == -1 || length > Integer.MAX_VALUE / ALPHABET.length()) return -1;
 
-		for (int i = 0; i < n; i++) {
-			_currentName += c;
+		for (int i = _PREFIX.length() + 1; i < name.length(); i++) {
+			if (name.charAt(i) != name.charAt(_PREFIX.length())) return -1;
 		}
+
+		return (length - 1) * ALPHABET.length() + letter;
 	}
 
 	/**
@@ -210,7 +267,28 @@ public class PointNamingFactory
         return _database.keySet();
 	}
 
-	public void clear() { _database.clear(); }
+	/**
+	 * @param pt -- a point
+	 * @return the database object removed for the point's coordinates (null if none)
+	 */
+	public Point remove(Point pt)
+	{
+		Point stored = get(pt);
+
+		if (stored != null) {
+			_database.remove(stored);
+			unindex(stored);
+		}
+
+		return stored;
+	}
+
+	public void clear()
+	{
+		_database.clear();
+		_names.clear();
+		_generatedPoints.clear();
+	}
 	public int size() { return _database.size(); }
 
 	@Override
@@ -0,0 +1,61 @@
+package geometry_objects.points;
+
+import utilities.math.Rational;
+
+/**
+ * A point with exact rational coordinates.
+ *
+ * Unlike Point, equality (and hashing) is exact: two rational points are equal
+ * only when their coordinates are the same numbers. Converting to a Point is
+ * deterministic, so equal rational points always become equal Points.
+ */
+public final class RationalPoint
+{
+	private final Rational _x;
+	public Rational getX() { return _x; }
+
+	private final Rational _y;
+	public Rational getY() { return _y; }
+
+	public RationalPoint(Rational x, Rational y)
+	{
+		_x = x;
+		_y = y;
+	}
+
+	/**
+	 * @param pt -- a point with integer coordinates (see isIntegral)
+	 * @return the same point with rational coordinates
+	 */
+	public static RationalPoint ofIntegral(Point pt)
+	{
+		return new RationalPoint(Rational.ofIntegral(pt.getX()), Rational.ofIntegral(pt.getY()));
+	}
+
+	/**
+	 * @return true if both coordinates of pt are integers
+	 */
+	public static boolean isIntegral(Point pt)
+	{
+		return Rational.isIntegral(pt.getX()) && Rational.isIntegral(pt.getY());
+	}
+
+	public Point toPoint() { return toPoint(Point.ANONYMOUS); }
+	public Point toPoint(String name) { return new Point(name, _x.doubleValue(), _y.doubleValue()); }
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (!(obj instanceof RationalPoint)) return false;
+
+		RationalPoint that = (RationalPoint) obj;
+
+		return _x.equals(that._x) && _y.equals(that._y);
+	}
+
+	@Override
+	public int hashCode() { return 31 * _x.hashCode() + _y.hashCode(); }
+
+	@Override
+	public String toString() { return "(" + _x + ", " + _y + ")"; }
+}
@@ -1,7 +1,9 @@
 package input.components.point;
 
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import components.ComponentNode;
 import input.components.exception.NotInDatabaseException;
@@ -15,8 +17,12 @@ import input.components.visitor.ComponentNodeVisitor;
 public class PointNodeDatabase implements ComponentNode{
 	private Set<PointNode> _points;
 
+	// name -> the first point stored with that name
+	private Map<String, PointNode> _names;
+
 	public PointNodeDatabase() {
 		_points = new LinkedHashSet<>();
+		_names = new HashMap<>();
 	}
 	
 	/**
@@ -32,15 +38,24 @@ public class PointNodeDatabase implements ComponentNode{
 	 * @param pointsNodes list
 	 */
 	public PointNodeDatabase(List<PointNode> points) {
-		_points = new LinkedHashSet<>(points);
+		this();
+
+		for (PointNode point : points) {
+			add(point);
+		}
 	}
 	
 	/**
 	 * add point to database
 	 * @param point added
 	 */
-	public void put(PointNode point) {
-		_points.add(point);
+	public void put(PointNode point) { add(point); }
+
+	// (private: the constructor adds points with it)
+	private void add(PointNode point) {
+		if (_points.add(point)) {
+			_names.putIfAbsent(point.getName(), point);
+		}
 	}
 	
 	/**
@@ -111,11 +126,20 @@ public class PointNodeDatabase implements ComponentNode{
 	 * @throws NotInDatabase 
 	 **/
 	public PointNode getPoint(String name) throws NotInDatabaseException {
-		for (PointNode storedPoint : _points) {
-			if (storedPoint.getName().equals(name)) return storedPoint;
-		}
-		
-		throw new NotInDatabaseException();
+		PointNode storedPoint = findPoint(name);
+
+		if (storedPoint == null) throw new NotInDatabaseException();
+
+		return storedPoint;
+	}
+
+	/**
+	 * Finds the stored point with a given name without throwing on a miss.
+	 * @param name of a PointNode
+	 * @return the PointNode; null if no point has that name
+	 **/
+	public PointNode findPoint(String name) {
+		return _names.get(name);
 	}
 	
 	/**
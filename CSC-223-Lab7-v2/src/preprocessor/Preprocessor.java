@@ -1,17 +1,40 @@
 package preprocessor;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
+import geometry_objects.delegates.intersections.SegmentIntersectionDelegate;
 import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
+import preprocessor.delegates.ComponentPartition;
+import preprocessor.delegates.CrossingTable;
 import preprocessor.delegates.ImplicitPointPreprocessor;
+import preprocessor.delegates.IntersectionProvenance;
+import preprocessor.delegates.LineGroup;
+import preprocessor.delegates.NonMinimalTask;
+import preprocessor.delegates.LineSegmentView;
+import preprocessor.delegates.LineSubsegments;
+import preprocessor.delegates.SegmentDatabase;
+import preprocessor.delegates.SegmentGrid;
+import preprocessor.delegates.SegmentIds;
+import preprocessor.delegates.SegmentNormalization;
+import preprocessor.delegates.SegmentSet;
 import geometry_objects.Segment;
+import utilities.math.analytic_geometry.GeometryPredicates;
 
 public class Preprocessor
 {
@@ -27,6 +50,10 @@ public class Preprocessor
 	// at implicit points.
 	protected Set<Point> _implicitPoints;
 
+	// For each given segment, the implicit points which split it, and the endpoints
+	// of other segments inside it (recorded as the implicit points are computed).
+	protected IntersectionProvenance _provenance;
+
 	// The set of implicitly defined segments resulting from implicit points.
 	protected Set<Segment> _implicitSegments;
 
@@ -42,52 +69,363 @@ public class Preprocessor
 	// For lookup capability, we use a map; each <key, value> has the same segment object
 	// That is, key == value. 
 	protected Map<Segment, Segment> _segmentDatabase;
-	public Map<Segment, Segment> getAllSegments() { return _segmentDatabase; }
+
+	// In lazy mode, non-minimal segments are never materialized: they are kept
+	// encoded by line (LineSubsegments) and the segment database is a read-only
+	// view of the lines of minimal segments.
+	protected boolean _lazy;
+
+	// The segments as given, when overlapping collinear segments were merged
+	// (the given segments above are then the normalized ones); null otherwise
+	protected SegmentNormalization _normalization;
+
+	// Dense ids of the segments seen: the implicit and minimal segments (and the
+	// sets passed between phases and edits) are bit sets over them (SegmentSet)
+	protected SegmentIds _segmentIds;
+
+	// The pool building the non-minimal segments line by line; null: built sequentially
+	protected ForkJoinPool _pool;
+
+	// true: the eager segment database is a SegmentDatabase (keyed by packed point
+	// numbers); false: a HashMap, which measures faster
+	protected boolean _packedDatabase;
+
+	//
+	// Bookkeeping for incremental edits (built on the first addSegment / removeSegment)
+	//
+	// minimal segment -> number of given segments with it as a piece
+	protected Map<Segment, Integer> _minimalCounts;
+
+	// implicit segment -> number of split given segments with it as a piece
+	protected Map<Segment, Integer> _implicitCounts;
+
+	// minimal segment -> the line it lies on
+	protected Map<Segment, LineGroup> _lineOf;
+
+	// vertex -> minimal segments with that endpoint
+	protected Map<Point, Set<Segment>> _minimalAt;
+
+	// piece of a split given segment -> that given segment
+	protected Map<Segment, Segment> _sources;
+
+	// vertex -> given segments with that endpoint
+	protected Map<Point, List<Segment>> _givenAt;
+
+	// the given segments by location (addSegment only intersects those near the new one)
+	protected SegmentGrid _givenGrid;
+
+	// location -> name of the implicit point a point moved there replaced (see movePoint)
+	protected Map<Point, String> _displaced;
 
 	public Preprocessor(PointDatabase points, Set<Segment> segments)
+	{
+		this(points, segments, false);
+	}
+
+	/**
+	 * @param points -- the explicit points of the figure
+	 * @param segments -- the segments of the figure
+	 * @param lazy -- if true, getAllSegments() is a read-only view; memory is
+	 *                proportional to the points and minimal segments only
+	 */
+	public Preprocessor(PointDatabase points, Set<Segment> segments, boolean lazy)
+	{
+		this(points, segments, lazy, false);
+	}
+
+	/**
+	 * @param normalize -- if true, overlapping collinear segments are first merged and
+	 *                     cut at their endpoints (see SegmentNormalization); the figure is
+	 *                     then analyzed (and edited) in terms of the normalized segments.
+	 *                     Without it, overlapping segments split each other at their
+	 *                     endpoints: the segments of the figure are the same either way
+	 */
+	public Preprocessor(PointDatabase points, Set<Segment> segments, boolean lazy, boolean normalize)
+	{
+		this(points, segments, lazy, normalize, true);
+	}
+
+	/**
+	 * A preprocessor whose phases run when their results are first asked for
+	 * (getImplicitPoints, getMinimalSegments, ...); the constructors analyze
+	 * the whole figure up front.
+	 */
+	public static Preprocessor onDemand(PointDatabase points, Set<Segment> segments)
+	{
+		return onDemand(points, segments, false, false);
+	}
+
+	/**
+	 * @see #onDemand(PointDatabase, Set)
+	 * @see #Preprocessor(PointDatabase, Set, boolean, boolean)
+	 */
+	public static Preprocessor onDemand(PointDatabase points, Set<Segment> segments, boolean lazy, boolean normalize)
+	{
+		return new Preprocessor(points, segments, lazy, normalize, false);
+	}
+
+	// the eager constructors have always run analyze(): a subclass's phases see its fields unset
+	@SuppressWarnings("this-escape")
+	private Preprocessor(PointDatabase points, Set<Segment> segments, boolean lazy, boolean normalize, boolean eager)
 	{
 		_pointDatabase  = points;
-		_givenSegments = segments;
-		
-		_segmentDatabase = new HashMap<Segment, Segment>();
-		
-		analyze();
+		_givenSegments = new LinkedHashSet<Segment>(segments);
+		_lazy = lazy;
+		_segmentIds = new SegmentIds();
+		_displaced = new HashMap<Point, String>();
+
+		if (normalize) {
+			_normalization = SegmentNormalization.normalize(segments);
+			_givenSegments = new LinkedHashSet<Segment>(_normalization.getSegments());
+		}
+
+		if (eager) analyze();
 	}
 
+	/*
+	 * @return the normalization of the given segments; null if they were not normalized
+	 */
+	public SegmentNormalization getNormalization() { return _normalization; }
+
+	/**
+	 * @param pool -- the pool to build the non-minimal segments on (one task per range
+	 *                of lines); null to build them sequentially
+	 */
+	public void setPool(ForkJoinPool pool) { _pool = pool; }
+
 	/**
-	 * Invoke the precomputation procedure.
+	 * @param packed -- true to build the eager segment database as a SegmentDatabase
+	 *                  (segments keyed by packed point numbers); false for a HashMap (the
+	 *                  default). Used the next time the database is built: on demand
+	 *                  (onDemand), or by analyze().
+	 */
+	public void setPackedSegmentDatabase(boolean packed) { _packedDatabase = packed; }
+
+	/**
+	 * Invoke the precomputation procedure: (re)run every phase.
 	 */
 	public void analyze()
 	{
-		//
-		// Implicit Points
-		//
-		_implicitPoints = ImplicitPointPreprocessor.compute(_pointDatabase, _givenSegments.stream().toList());
-
-		//
-		// Implicit Segments attributed to implicit points
-		//
-		_implicitSegments = computeImplicitBaseSegments(_implicitPoints);
-
-		//
-		// Combine the given minimal segments and implicit segments into a true set of minimal segments
-		//     *givenSegments may not be minimal
-		//     * implicitSegmen
-		//
-		_allMinimalSegments = identifyAllMinimalSegments(_implicitPoints, _givenSegments, _implicitSegments);
-
-		//
-		// Construct all segments inductively from the base segments
-		//
-		_nonMinimalSegments = constructAllNonMinimalSegments(_allMinimalSegments);
-
-		//
-		// Combine minimal and non-minimal into one package: our database
-		//
-		_allMinimalSegments.forEach((segment) -> _segmentDatabase.put(segment, segment));
-		_nonMinimalSegments.forEach((segment) -> _segmentDatabase.put(segment, segment));
+		_implicitPoints = null;
+		_provenance = null;
+		_implicitSegments = null;
+		_allMinimalSegments = null;
+		_nonMinimalSegments = null;
+		_segmentDatabase = null;
+		_minimalCounts = null;
+
+		// no set over the old ids is kept: start over (sets returned before keep the old ids)
+		_segmentIds = new SegmentIds();
+
+		getAllSegments();
 	}
-	
+
+	/**
+	 * Invoke the precomputation procedure one independent part of the figure at
+	 * a time on the pool set with setPool (see analyzeComponents(ForkJoinPool));
+	 * with no pool set, this is analyze().
+	 *
+	 * Splitting the figure is not free: on one thread it is slower than analyze(),
+	 * so it is only done on a pool the caller chose.
+	 */
+	public void analyzeComponents()
+	{
+		if (_pool == null) analyze();
+		else analyzeComponents(_pool);
+	}
+
+	/**
+	 * Invoke the precomputation procedure with the figure split into its
+	 * independent parts (ComponentPartition): every phase of each part runs
+	 * as one task on the pool, then the results are merged.
+	 *
+	 * The implicit points are put in the point database in the order a
+	 * whole-figure analysis finds them (by the first pair of given segments
+	 * crossing at each point), so they get the same names for any number of
+	 * threads; the results are the same as analyze().
+	 *
+	 * @param pool -- the pool analyzing the parts
+	 */
+	public void analyzeComponents(ForkJoinPool pool)
+	{
+		List<Segment> given = new ArrayList<Segment>(_givenSegments);
+
+		List<ForkJoinTask<ComponentAnalysis>> tasks = new ArrayList<ForkJoinTask<ComponentAnalysis>>();
+		for (int[] part : ComponentPartition.partition(given)) {
+			tasks.add(pool.submit(() -> analyzeComponent(given, part)));
+		}
+
+		List<ComponentAnalysis> parts = new ArrayList<ComponentAnalysis>();
+		tasks.forEach((task) -> parts.add(task.join()));
+
+		// implicit points in whole-figure order: by the (global) first pair crossing at each
+		TreeMap<Long, Point> byFirstPair = new TreeMap<Long, Point>();
+		for (ComponentAnalysis part : parts) {
+			for (Point pt : part._preprocessor._implicitPoints) {
+				long local = part._crossings.getFirstPair(pt);
+				int[] indices = part._indices;
+
+				byFirstPair.put(ImplicitPointPreprocessor.pair(indices[ImplicitPointPreprocessor.first(local)],
+						                                       indices[ImplicitPointPreprocessor.second(local)]), pt);
+			}
+		}
+
+		_implicitPoints = new LinkedHashSet<Point>();
+		for (Point pt : byFirstPair.values()) {
+			_implicitPoints.add(pt);
+			_pointDatabase.put(pt.getName(), pt.getX(), pt.getY());
+		}
+
+		_provenance = new IntersectionProvenance();
+		_segmentIds = new SegmentIds();
+		_implicitSegments = new SegmentSet(_segmentIds);
+		_allMinimalSegments = new SegmentSet(_segmentIds);
+		_nonMinimalSegments = _lazy ? null : new SegmentSet(_segmentIds);
+		_segmentDatabase = null;
+		_minimalCounts = null;
+
+		for (ComponentAnalysis part : parts) {
+			Preprocessor analyzed = part._preprocessor;
+
+			_provenance.merge(analyzed._provenance);
+
+			_implicitSegments.addAll(analyzed._implicitSegments);
+			_allMinimalSegments.addAll(analyzed._allMinimalSegments);
+			if (!_lazy) _nonMinimalSegments.addAll(analyzed._nonMinimalSegments);
+		}
+
+		getAllSegments();
+	}
+
+	/*
+	 * Every phase but the segment database for the given segments at the indices of part
+	 * (on a point database of its own: the implicit points are named when merged).
+	 */
+	private ComponentAnalysis analyzeComponent(List<Segment> given, int[] part)
+	{
+		List<Segment> segments = new ArrayList<Segment>(part.length);
+		for (int index : part) segments.add(given.get(index));
+
+		Preprocessor analyzed = onDemand(new PointDatabase(), new LinkedHashSet<Segment>(segments), _lazy, false);
+
+		analyzed._provenance = new IntersectionProvenance();
+		CrossingTable crossings = ImplicitPointPreprocessor.computeCrossings(null, segments, analyzed._provenance);
+		analyzed._implicitPoints = crossings.getPoints();
+
+		analyzed.getMinimalSegments();
+		if (!_lazy) analyzed.getNonMinimalSegments();
+
+		return new ComponentAnalysis(analyzed, crossings, part);
+	}
+
+	/*
+	 * The analysis of one part of the figure.
+	 */
+	private static class ComponentAnalysis
+	{
+		protected final Preprocessor _preprocessor;
+		protected final CrossingTable _crossings;
+		protected final int[] _indices; // part index -> index among the given segments
+
+		ComponentAnalysis(Preprocessor preprocessor, CrossingTable crossings, int[] indices)
+		{
+			_preprocessor = preprocessor;
+			_crossings = crossings;
+			_indices = indices;
+		}
+	}
+
+	//
+	// Phases of the analysis; each runs once, the first time its result is needed
+	//
+
+	/**
+	 * Implicit Points (added to the point database)
+	 */
+	public Set<Point> getImplicitPoints()
+	{
+		if (_implicitPoints == null) {
+			_provenance = new IntersectionProvenance();
+			_implicitPoints = ImplicitPointPreprocessor.compute(_pointDatabase, _givenSegments.stream().toList(), _provenance);
+		}
+
+		return _implicitPoints;
+	}
+
+	/**
+	 * Implicit Segments attributed to implicit points
+	 */
+	public Set<Segment> getImplicitSegments()
+	{
+		if (_implicitSegments == null) {
+			getImplicitPoints();
+			_implicitSegments = computeImplicitBaseSegments(_provenance);
+		}
+
+		return _implicitSegments;
+	}
+
+	/**
+	 * Combine the given minimal segments and implicit segments into a true set of minimal segments
+	 *     * givenSegments may not be minimal
+	 *     * implicitSegments are minimal
+	 */
+	public Set<Segment> getMinimalSegments()
+	{
+		if (_allMinimalSegments == null) {
+			Set<Segment> implicitSegments = getImplicitSegments();
+			_allMinimalSegments = identifyAllMinimalSegments(_provenance, _givenSegments, implicitSegments);
+		}
+
+		return _allMinimalSegments;
+	}
+
+	/**
+	 * Construct all segments inductively from the base segments
+	 */
+	public Set<Segment> getNonMinimalSegments()
+	{
+		if (_nonMinimalSegments == null) {
+			// lazy: encoded by line and positions; never edited (dropped by an edit instead)
+			if (_lazy) {
+				_nonMinimalSegments = new LineSubsegments(LineGroup.group(getMinimalSegments(), sources()), 2);
+			}
+			else {
+				if (_pool == null) _nonMinimalSegments = constructAllNonMinimalSegments(getMinimalSegments());
+				else _nonMinimalSegments = constructAllNonMinimalSegments(getMinimalSegments(), _pool);
+
+				// the lines of an edit index are regrouped to match
+				_minimalCounts = null;
+			}
+		}
+
+		return _nonMinimalSegments;
+	}
+
+	/**
+	 * Combine minimal and non-minimal into one package: our database
+	 * (in lazy mode, a view of the lines of minimal segments)
+	 */
+	public Map<Segment, Segment> getAllSegments()
+	{
+		if (_segmentDatabase != null) return _segmentDatabase;
+
+		if (_lazy) {
+			_segmentDatabase = new LineSegmentView(LineGroup.group(getMinimalSegments(), sources()));
+		}
+		else {
+			int expected = getMinimalSegments().size() + getNonMinimalSegments().size();
+
+			if (_packedDatabase) _segmentDatabase = new SegmentDatabase(expected);
+			else _segmentDatabase = new HashMap<Segment, Segment>(4 * expected / 3 + 1);
+
+			getMinimalSegments().forEach((segment) -> _segmentDatabase.put(segment, segment));
+			getNonMinimalSegments().forEach((segment) -> _segmentDatabase.put(segment, segment));
+		}
+
+		return _segmentDatabase;
+	}
+
 	/**
 	 * If two segments cross at an unnamed point, the result is an implicit point.
 	 * 
@@ -102,29 +440,47 @@ public class Preprocessor
 	 */
 	protected Set<Segment> computeImplicitBaseSegments(Set<Point> impPoints)
 	{
-		Set<Segment> impSegments = new HashSet<Segment>();
-		SortedSet<Point> points = new TreeSet<Point>();
+		return computeImplicitBaseSegments(findSplits(impPoints, _givenSegments));
+	}
 
-		for (Segment segment : _givenSegments) {
-			for (Point point : impPoints) {
-				if (segment.pointLiesOn(point)) {
-					points.add(point);
-				}
-			}
-			
-			if (points.size() != 0) {
-				points.add(segment.getPoint1());
-				points.add(segment.getPoint2());
+	/**
+	 * @param provenance -- the implicit points splitting each given segment
+	 * @return a set of implicitly defined segments
+	 */
+	protected Set<Segment> computeImplicitBaseSegments(IntersectionProvenance provenance)
+	{
+		Set<Segment> impSegments = new SegmentSet(_segmentIds);
 
-				impSegments.addAll(makeSegments(points));
+		for (Map.Entry<Segment, SortedSet<Point>> entry : provenance.asMap().entrySet()) {
+			SortedSet<Point> points = new TreeSet<Point>(entry.getValue());
 
-				points.clear();
-			}
+			points.add(entry.getKey().getPoint1());
+			points.add(entry.getKey().getPoint2());
+
+			impSegments.addAll(makeSegments(points));
 		}
 
 		return impSegments;
 	}
-	
+
+	/*
+	 * Scan for the implicit points splitting each segment: O(segments x points).
+	 * (The provenance recorded while computing the implicit points is the same
+	 * information without the scan.)
+	 */
+	private static IntersectionProvenance findSplits(Set<Point> impPoints, Set<Segment> segments)
+	{
+		IntersectionProvenance provenance = new IntersectionProvenance();
+
+		for (Segment segment : segments) {
+			for (Point point : impPoints) {
+				if (segment.pointLiesBetweenEndpoints(point)) provenance.split(segment, point);
+			}
+		}
+
+		return provenance;
+	}
+
 	/**
 	 * A set of ordered points:
 	 * 
@@ -169,82 +525,71 @@ public class Preprocessor
 			Set<Segment> givenSegments,
 			Set<Segment> minimalImpSegments)
 	{
-		Set<Segment> minimal = new HashSet<Segment>(minimalImpSegments);
-		
-		for (Segment segment : givenSegments) {
-			minimal.add(segment);
-
-			for (Point point : impPoints) {
-				if (segment.pointLiesBetweenEndpoints(point)) {
-					minimal.remove(segment);
-					break;
-				}
-			}
-		}
-
-		return minimal;
+		return identifyAllMinimalSegments(findSplits(impPoints, givenSegments), givenSegments, minimalImpSegments);
 	}
-	
+
 	/**
-	 * Given a set of minimal segments, build non-minimal segments by appending
-	 * minimal segments (one at a time).
-	 * 
-	 * (Recursive construction of segments.)
+	 * @param provenance -- the implicit points splitting each given segment
+	 * @param givenSegments -- segments provided by the user
+	 * @param minimalImpSegments -- minimal implicit segments computed from the implicit points
+	 * @return -- the given segments not split by any implicit point along with the implicit segments
 	 */
-	public Set<Segment> constructAllNonMinimalSegments(Set<Segment> minimalSegs)
+	protected Set<Segment> identifyAllMinimalSegments(IntersectionProvenance provenance,
+			Set<Segment> givenSegments,
+			Set<Segment> minimalImpSegments)
 	{
-		if (minimalSegs == null) return null;
-		
-		Set<Segment> nonMinimalSegs = new HashSet<Segment>();
+		// (a copy of the bits when the implicit segments are a SegmentSet of this figure)
+		Set<Segment> minimal = new SegmentSet(_segmentIds);
+		minimal.addAll(minimalImpSegments);
 
-		constructAllNonMinimalSegments(minimalSegs, minimalSegs.stream().toList(), nonMinimalSegs);
+		for (Segment segment : givenSegments) {
+			if (!provenance.isSplit(segment)) minimal.add(segment);
+		}
 
-		return nonMinimalSegs;
+		return minimal;
 	}
 
+	/**
+	 * Given a set of minimal segments, build all non-minimal segments.
+	 *
+	 * Minimal segments are grouped by their supporting line (the given segment of
+	 * this figure they are pieces of: see LineGroup.group) and the points of each
+	 * line ordered along it; every pair of points not adjacent on a line is a
+	 * non-minimal segment. The work is proportional to the output size.
+	 */
 	// non minimal means it DOES contain other implicit or explicit points along the line
 	// *-------*----------*
 	// A       B          C    ... line AC is NON minimal, segments AB and BC are minimal
-	private void constructAllNonMinimalSegments(Set<Segment> lastLevelSegs, List<Segment> minimalSegs, Set<Segment> nonMinimalSegs)
+	public Set<Segment> constructAllNonMinimalSegments(Set<Segment> minimalSegs)
 	{
-		//System.out.println("--------- LAST -----------");
+		if (minimalSegs == null) return null;
 
-		for (Segment segment : lastLevelSegs) {
-			//System.out.println("seg: " + segment.toString());
-		}
-		
-		//System.out.println("--------- MINI -----------");
+		Set<Segment> nonMinimalSegs = new SegmentSet(_segmentIds);
 
-		for (Segment segment : minimalSegs) {
-			//System.out.println("seg: " + segment.toString());
+		for (LineGroup line : LineGroup.group(minimalSegs, sources())) {
+			line.addNonMinimalSegments(nonMinimalSegs);
 		}
 
-		Segment potentialSegment;
-		boolean changed = false;
+		return nonMinimalSegs;
+	}
 
-		for (Segment segment : lastLevelSegs) {
-			for (Segment minSeg : minimalSegs) {
-				potentialSegment = combineToNewSegment(minSeg, segment);
+	/**
+	 * constructAllNonMinimalSegments on a pool: the lines are independent, so ranges
+	 * of lines are built as separate tasks (NonMinimalTask), balanced by their number
+	 * of non-minimal segments, and merged into a set sized for all of them.
+	 */
+	public Set<Segment> constructAllNonMinimalSegments(Set<Segment> minimalSegs, ForkJoinPool pool)
+	{
+		if (minimalSegs == null) return null;
 
-				//System.out.println("========");
-				//System.out.println("lastSeg: " + segment.toString());
-				//System.out.println("minSeg: " + minSeg.toString());
-				
-				if (potentialSegment != null && !lastLevelSegs.contains(potentialSegment)) {
-					//System.out.println("!! Seg added !!");
-					nonMinimalSegs.add(potentialSegment);
-					changed = true;
-				}
-			}
-		}
+		List<Segment> segments = pool.invoke(new NonMinimalTask(LineGroup.group(minimalSegs, sources())));
 
-		if (!changed) {
-			return;
-		}
+		Set<Segment> nonMinimalSegs = new SegmentSet(_segmentIds);
+		nonMinimalSegs.addAll(segments);
 
-		constructAllNonMinimalSegments(nonMinimalSegs, minimalSegs, nonMinimalSegs);
+		return nonMinimalSegs;
 	}
-	
+
 	//
 	// Our goal is to stitch together segments that are on the same line:
 	//                       A---------B----------C
@@ -260,8 +605,8 @@ public class Preprocessor
 		// 1 - check equality
 		if (left.equals(right)) return left;
 		
-		// 2 - check collinearity
-		if (!left.isCollinearWith(right)) return null;
+		// 2 - check collinearity (tolerant: the shared point may be a truncated implicit point)
+		if (!left.isNearlyCollinearWith(right)) return null;
 
 		// 3 - check for shared point
 		Point shared = left.sharedVertex(right);
@@ -275,4 +620,583 @@ public class Preprocessor
 		// 5 - find points of new segment and return
 		return new Segment(left.other(shared), right.other(shared));
 	}
+
+	/**
+	 * Adds a segment to the figure without re-analyzing it.
+	 *
+	 * Only the new segment is intersected with the figure; only the given
+	 * segments it crosses (ends on, or overlaps) are re-split, and only the
+	 * lines which gain or lose minimal segments are rebuilt.
+	 *
+	 * @param segment -- a segment whose endpoints are in the point database
+	 * @return true if the segment was not already in the figure
+	 */
+	public boolean addSegment(Segment segment)
+	{
+		if (segment == null || _givenSegments.contains(segment)) return false;
+
+		buildIncrementalIndex();
+
+		// crossings of the new segment with the figure, and where one stands on (or overlaps) the other
+		Map<Segment, Point> crossings = new LinkedHashMap<Segment, Point>();
+		Map<Segment, List<Point>> splits = new LinkedHashMap<Segment, List<Point>>();
+		Map<Segment, List<Point>> standing = new LinkedHashMap<Segment, List<Point>>();
+
+		double[] xy = new double[2];
+		for (Segment given : _givenGrid.near(segment)) {
+			// (meet rejects the pairs with disjoint bounding boxes first)
+			int meeting = SegmentIntersectionDelegate.meet(given, segment, xy);
+
+			if (meeting == SegmentIntersectionDelegate.CROSSING) crossings.put(given, new Point("", xy[0], xy[1]));
+			else if (meeting == SegmentIntersectionDelegate.SPLITS_FIRST) splits.put(given, List.of(SegmentIntersectionDelegate.endpoint(segment, xy)));
+			else if (meeting == SegmentIntersectionDelegate.SPLITS_SECOND) standing.put(given, List.of(SegmentIntersectionDelegate.endpoint(given, xy)));
+			else if (given.boundsOverlap(segment) && SegmentNormalization.overlap(given, segment)) {
+				// each is split at the endpoints of the other in its middle (see CrossingTable.overlap)
+				List<Point> inGiven = endpointsInMiddle(segment, given);
+				List<Point> inSegment = endpointsInMiddle(given, segment);
+
+				if (!inGiven.isEmpty()) splits.put(given, inGiven);
+				if (!inSegment.isEmpty()) standing.put(given, inSegment);
+			}
+		}
+
+		SegmentSet removed = new SegmentSet(_segmentIds);
+		SegmentSet added = new SegmentSet(_segmentIds);
+
+		// the segments crossed (or stood on) are split further: retract their old pieces first
+		Set<Segment> resplit = new LinkedHashSet<Segment>(crossings.keySet());
+		resplit.addAll(splits.keySet());
+		resplit.forEach((given) -> retractPieces(given, removed));
+
+		for (Map.Entry<Segment, Point> crossing : crossings.entrySet()) {
+			Point pt = crossing.getValue();
+
+			_implicitPoints.add(pt);
+			_pointDatabase.put(pt.getName(), pt.getX(), pt.getY());
+			_provenance.record(crossing.getKey(), segment, pt);
+		}
+
+		splits.forEach((given, points) -> points.forEach((pt) -> _provenance.split(given, segment, pt)));
+		standing.forEach((given, points) -> points.forEach((pt) -> _provenance.split(segment, given, pt)));
+
+		_givenSegments.add(segment);
+		_givenGrid.add(segment);
+		attach(segment);
+
+		resplit.forEach((given) -> contributePieces(given, added));
+		contributePieces(segment, added);
+
+		updateLines(removed, added);
+		compactIds();
+
+		return true;
+	}
+
+	/**
+	 * Removes a given segment from the figure without re-analyzing it.
+	 *
+	 * Given segments split where the segment met them (and nothing else meets
+	 * them) are rejoined; implicit points on the segment which no longer lie on
+	 * a crossing are retired (from the implicit points and the point database).
+	 *
+	 * @param segment -- a given segment
+	 * @return true if the segment was in the figure
+	 */
+	public boolean removeSegment(Segment segment)
+	{
+		if (segment == null || !_givenSegments.contains(segment)) return false;
+
+		buildIncrementalIndex();
+
+		SegmentSet removed = new SegmentSet(_segmentIds);
+		SegmentSet added = new SegmentSet(_segmentIds);
+
+		retractPieces(segment, removed);
+		_givenSegments.remove(segment);
+		_givenGrid.remove(segment);
+		detach(segment);
+
+		// segments meeting the removed segment at a point where they no longer meet another
+		// segment are rejoined there; without crossings an implicit point is retired
+		Map<Segment, List<Point>> rejoined = new LinkedHashMap<Segment, List<Point>>();
+		Map<Segment, List<Point>> stale = new LinkedHashMap<Segment, List<Point>>();
+		for (Point pt : meetingPoints(segment)) {
+			_provenance.unsplit(segment, pt);
+
+			List<Segment> remaining = new ArrayList<Segment>(_provenance.getCrossingSegments(pt));
+			boolean crossing = false;
+			boolean meeting = false;
+
+			for (Segment given : remaining) {
+				int meets = meetsAny(given, remaining, pt);
+
+				crossing |= meets == SegmentIntersectionDelegate.CROSSING;
+				meeting |= meets != SegmentIntersectionDelegate.NONE;
+
+				if (meets != SegmentIntersectionDelegate.NONE) continue;
+
+				stale.computeIfAbsent(given, (g) -> new ArrayList<Point>()).add(pt);
+				if (_provenance.getSplits(given).contains(pt)) {
+					rejoined.computeIfAbsent(given, (g) -> new ArrayList<Point>()).add(pt);
+				}
+			}
+
+			// (a point where segments still stand on one another is the endpoint of one of them)
+			if (!crossing && _implicitPoints.remove(pt) && !meeting) retirePoint(pt);
+		}
+
+		rejoined.keySet().forEach((given) -> retractPieces(given, removed));
+
+		for (Map.Entry<Segment, List<Point>> entry : stale.entrySet()) {
+			for (Point pt : entry.getValue()) _provenance.unsplit(entry.getKey(), pt);
+		}
+
+		rejoined.keySet().forEach((given) -> contributePieces(given, added));
+
+		updateLines(removed, added);
+		compactIds();
+
+		return true;
+	}
+
+	/**
+	 * Moves a named point without re-analyzing the figure.
+	 *
+	 * The given segments incident to the point are detached (removeSegment) and
+	 * attached again at the new location (addSegment): only their crossings are
+	 * recomputed and only the lines they touch are rebuilt. A segment moved onto
+	 * the line of another given segment splits (and is split by) it where they
+	 * overlap, as an added segment does.
+	 *
+	 * @param name -- the name of a point in the database
+	 * @param x -- new coordinate
+	 * @param y -- new coordinate
+	 * @return false (and nothing changes) if there is no such point, another named
+	 *         point occupies (x, y), or an incident segment would collapse to a point
+	 */
+	public boolean movePoint(String name, double x, double y)
+	{
+		Point moving = _pointDatabase.getPoint(name);
+		if (moving == null) return false;
+
+		Point target = new Point(name, x, y);
+
+		String occupant = _pointDatabase.getName(target);
+		boolean occupied = occupant != null && !occupant.equals(name);
+		if (occupied && !isImplicitName(occupant)) return false;
+
+		buildIncrementalIndex();
+
+		List<Segment> incident = new ArrayList<Segment>(_givenAt.getOrDefault(moving, Collections.emptyList()));
+		for (Segment given : incident) {
+			if (given.other(moving).equals(target)) return false;
+		}
+
+		incident.forEach((given) -> removeSegment(given));
+
+		// the point may have been sitting on a crossing of other segments: the crossing gets
+		// back the name it had before a point was moved onto it (else it is unnamed, as the
+		// phases leave implicit points; see CrossingTable)
+		_pointDatabase.remove(moving);
+		String vacated = _displaced.remove(moving);
+		if (!_provenance.getCrossingSegments(moving).isEmpty()) {
+			_pointDatabase.put(vacated != null ? vacated : Point.ANONYMOUS, moving.getX(), moving.getY());
+		}
+
+		// ... or be moved onto one
+		if (occupied) {
+			_displaced.put(target, occupant);
+			_pointDatabase.remove(target);
+		}
+		_pointDatabase.put(target);
+
+		for (Segment given : incident) {
+			addSegment(new Segment(target, given.other(moving)));
+		}
+
+		return true;
+	}
+
+	/*
+	 * @return the points where the given segment meets other given segments: the
+	 *         points splitting it and those of its endpoints splitting another segment
+	 */
+	private List<Point> meetingPoints(Segment given)
+	{
+		List<Point> points = new ArrayList<Point>(_provenance.getSplits(given));
+
+		for (Point endpoint : List.of(given.getPoint1(), given.getPoint2())) {
+			if (_provenance.getCrossingSegments(endpoint).contains(given)) points.add(endpoint);
+		}
+
+		return points;
+	}
+
+	/*
+	 * @return the endpoints of segment strictly between the endpoints of other
+	 */
+	private static List<Point> endpointsInMiddle(Segment segment, Segment other)
+	{
+		List<Point> inside = new ArrayList<Point>(2);
+
+		for (Point endpoint : List.of(segment.getPoint1(), segment.getPoint2())) {
+			if (!other.has(endpoint) && GeometryPredicates.between(endpoint, other.getPoint1(), other.getPoint2())) {
+				inside.add(endpoint);
+			}
+		}
+
+		return inside;
+	}
+
+	/*
+	 * @return how the given segment meets another of the segments at pt: CROSSING if it
+	 *         crosses one there, else how it meets one there (NONE if it meets none);
+	 *         collinear segments which overlap meet at the endpoints of one in the middle
+	 *         of the other
+	 */
+	private static int meetsAny(Segment given, List<Segment> segments, Point pt)
+	{
+		double[] xy = new double[2];
+		int meets = SegmentIntersectionDelegate.NONE;
+
+		for (Segment other : segments) {
+			if (other == given) continue;
+
+			if (given.boundsOverlap(other) && SegmentNormalization.overlap(given, other)) {
+				if (endpointsInMiddle(other, given).contains(pt)) meets = SegmentIntersectionDelegate.SPLITS_FIRST;
+				if (endpointsInMiddle(given, other).contains(pt)) meets = SegmentIntersectionDelegate.SPLITS_SECOND;
+				continue;
+			}
+
+			int meeting = SegmentIntersectionDelegate.meet(given, other, xy);
+			if (meeting == SegmentIntersectionDelegate.NONE || xy[0] != pt.getX() || xy[1] != pt.getY()) continue;
+
+			if (meeting == SegmentIntersectionDelegate.CROSSING) return meeting;
+			meets = meeting;
+		}
+
+		return meets;
+	}
+
+	/**
+	 * Compares the (incrementally maintained) state with a fresh analysis of
+	 * the same figure; analyzes a copy of the point database.
+	 *
+	 * @return true if both agree on the implicit points and every set of segments
+	 */
+	public boolean isConsistentWithAnalyze()
+	{
+		PointDatabase points = new PointDatabase(new ArrayList<Point>(_pointDatabase.getPoints()));
+		Preprocessor fresh = new Preprocessor(points, _givenSegments);
+
+		return new TreeSet<Point>(getImplicitPoints()).equals(new TreeSet<Point>(fresh.getImplicitPoints())) &&
+			   sameSegments(getImplicitSegments(), fresh.getImplicitSegments()) &&
+			   sameSegments(getMinimalSegments(), fresh.getMinimalSegments()) &&
+			   sameSegments(getNonMinimalSegments(), fresh.getNonMinimalSegments()) &&
+			   sameSegments(getAllSegments().keySet(), fresh.getAllSegments().keySet());
+	}
+
+	/*
+	 * Segment equality is within epsilon, so compare the two sets in a canonical order.
+	 */
+	private static boolean sameSegments(Set<Segment> left, Set<Segment> right)
+	{
+		if (left.size() != right.size()) return false;
+
+		List<Segment> ls = canonical(left);
+		List<Segment> rs = canonical(right);
+
+		for (int s = 0; s < ls.size(); s++) {
+			if (!ls.get(s).equals(rs.get(s))) return false;
+		}
+
+		return true;
+	}
+
+	private static List<Segment> canonical(Set<Segment> segments)
+	{
+		List<Segment> ordered = new ArrayList<Segment>();
+
+		for (Segment segment : segments) {
+			Point pt1 = segment.getPoint1();
+			Point pt2 = segment.getPoint2();
+
+			ordered.add(pt1.compareTo(pt2) <= 0 ? segment : new Segment(pt2, pt1));
+		}
+
+		ordered.sort((s, t) -> {
+			int first = s.getPoint1().compareTo(t.getPoint1());
+			return first != 0 ? first : s.getPoint2().compareTo(t.getPoint2());
+		});
+
+		return ordered;
+	}
+
+	/*
+	 * Reference counts and line index for incremental edits, built from the analysis.
+	 */
+	private void buildIncrementalIndex()
+	{
+		if (_minimalCounts != null) return;
+
+		getMinimalSegments();
+
+		_minimalCounts = new HashMap<Segment, Integer>();
+		_implicitCounts = new HashMap<Segment, Integer>();
+		_lineOf = new HashMap<Segment, LineGroup>();
+		_minimalAt = new TreeMap<Point, Set<Segment>>();
+		_sources = new HashMap<Segment, Segment>();
+		_givenAt = new HashMap<Point, List<Segment>>();
+		_givenGrid = new SegmentGrid(_givenSegments);
+
+		for (Segment given : _givenSegments) {
+			attach(given);
+
+			boolean split = _provenance.isSplit(given);
+
+			for (Segment piece : pieces(given)) {
+				_minimalCounts.merge(piece, 1, Integer::sum);
+				if (split) {
+					_implicitCounts.merge(piece, 1, Integer::sum);
+					_sources.put(piece, given);
+				}
+			}
+		}
+
+		_allMinimalSegments.forEach((segment) -> index(segment));
+
+		for (LineGroup line : LineGroup.group(_allMinimalSegments, _sources)) {
+			for (Segment segment : line.getMinimalSegments()) _lineOf.put(segment, line);
+		}
+	}
+
+	// index a given segment by its endpoints
+	private void attach(Segment given)
+	{
+		_givenAt.computeIfAbsent(given.getPoint1(), (pt) -> new ArrayList<Segment>(2)).add(given);
+		_givenAt.computeIfAbsent(given.getPoint2(), (pt) -> new ArrayList<Segment>(2)).add(given);
+	}
+
+	private void detach(Segment given)
+	{
+		for (Point vertex : List.of(given.getPoint1(), given.getPoint2())) {
+			List<Segment> around = _givenAt.get(vertex);
+
+			around.remove(given);
+			if (around.isEmpty()) _givenAt.remove(vertex);
+		}
+	}
+
+	/*
+	 * @return piece of a split given segment -> that given segment (the lines of
+	 *         the minimal segments are told by it: see LineGroup.group)
+	 */
+	private Map<Segment, Segment> sources()
+	{
+		// (kept up to date by edits)
+		if (_minimalCounts != null) return _sources;
+
+		getImplicitPoints();
+
+		Map<Segment, Segment> sources = new HashMap<Segment, Segment>();
+
+		for (Segment given : _givenSegments) {
+			if (!_provenance.isSplit(given)) continue;
+
+			for (Segment piece : pieces(given)) sources.put(piece, given);
+		}
+
+		return sources;
+	}
+
+	/*
+	 * @return the minimal segments a given segment is cut into by its implicit points
+	 */
+	private List<Segment> pieces(Segment given)
+	{
+		if (!_provenance.isSplit(given)) return List.of(given);
+
+		SortedSet<Point> points = new TreeSet<Point>(_provenance.getSplits(given));
+		points.add(given.getPoint1());
+		points.add(given.getPoint2());
+
+		return new ArrayList<Segment>(makeSegments(points));
+	}
+
+	/*
+	 * Drop the pieces of a given segment; pieces no other given segment shares leave the figure.
+	 *
+	 * A piece shared with other (overlapping) given segments keeps the given segment as
+	 * its source: they all lie on one line, which is all the source tells (LineGroup.group).
+	 */
+	private void retractPieces(Segment given, Set<Segment> removed)
+	{
+		boolean split = _provenance.isSplit(given);
+
+		for (Segment piece : pieces(given)) {
+			if (split && _implicitCounts.merge(piece, -1, Integer::sum) == 0) {
+				_implicitCounts.remove(piece);
+				_implicitSegments.remove(piece);
+				_sources.remove(piece);
+			}
+
+			if (_minimalCounts.merge(piece, -1, Integer::sum) == 0) {
+				_minimalCounts.remove(piece);
+				_allMinimalSegments.remove(piece);
+				if (isMaterialized()) _segmentDatabase.remove(piece);
+				removed.add(piece);
+			}
+		}
+	}
+
+	/*
+	 * Add the pieces of a given segment; pieces new to the figure are reported as added.
+	 */
+	private void contributePieces(Segment given, Set<Segment> added)
+	{
+		boolean split = _provenance.isSplit(given);
+
+		for (Segment piece : pieces(given)) {
+			if (split && _implicitCounts.merge(piece, 1, Integer::sum) == 1) {
+				_implicitSegments.add(piece);
+			}
+			if (split) _sources.put(piece, given);
+
+			if (_minimalCounts.merge(piece, 1, Integer::sum) == 1) {
+				_allMinimalSegments.add(piece);
+				if (isMaterialized()) _segmentDatabase.put(piece, piece);
+				added.add(piece);
+			}
+		}
+	}
+
+	/*
+	 * Rebuild the lines which lost or gained minimal segments (and their non-minimal segments).
+	 */
+	private void updateLines(SegmentSet removed, SegmentSet added)
+	{
+		// the view (and the encoded non-minimal segments) are rebuilt from the minimal segments when next asked for
+		if (_lazy) {
+			_segmentDatabase = null;
+			_nonMinimalSegments = null;
+		}
+
+		// a piece retracted and contributed again in the same edit did not change
+		SegmentSet gone = new SegmentSet(removed);
+		gone.removeAll(added);
+		SegmentSet fresh = new SegmentSet(added);
+		fresh.removeAll(removed);
+
+		Set<LineGroup> stale = Collections.newSetFromMap(new IdentityHashMap<LineGroup, Boolean>());
+
+		for (Segment segment : gone) {
+			LineGroup line = _lineOf.remove(segment);
+			if (line != null) stale.add(line);
+			unindex(segment);
+		}
+
+		// new segments may continue (or join) the lines through their endpoints
+		for (Segment segment : fresh) {
+			for (Point vertex : List.of(segment.getPoint1(), segment.getPoint2())) {
+				for (Segment neighbor : _minimalAt.getOrDefault(vertex, Collections.emptySet())) {
+					LineGroup line = _lineOf.get(neighbor);
+					if (line != null) stale.add(line);
+				}
+			}
+		}
+		fresh.forEach((segment) -> index(segment));
+
+		SegmentSet regroup = new SegmentSet(fresh);
+		for (LineGroup line : stale) {
+			for (Segment segment : line.getMinimalSegments()) {
+				if (_allMinimalSegments.contains(segment)) regroup.add(segment);
+			}
+
+			// (non-minimal segments not yet constructed are built from the updated lines)
+			if (_nonMinimalSegments == null) continue;
+
+			List<Segment> nonMinimal = new ArrayList<Segment>();
+			line.addNonMinimalSegments(nonMinimal);
+
+			for (Segment segment : nonMinimal) {
+				_nonMinimalSegments.remove(segment);
+				if (isMaterialized() && !_allMinimalSegments.contains(segment)) _segmentDatabase.remove(segment);
+			}
+		}
+
+		for (LineGroup line : LineGroup.group(regroup, _sources)) {
+			for (Segment segment : line.getMinimalSegments()) _lineOf.put(segment, line);
+
+			if (_nonMinimalSegments == null) continue;
+
+			List<Segment> nonMinimal = new ArrayList<Segment>();
+			line.addNonMinimalSegments(nonMinimal);
+
+			for (Segment segment : nonMinimal) {
+				_nonMinimalSegments.add(segment);
+				if (isMaterialized()) _segmentDatabase.put(segment, segment);
+			}
+		}
+	}
+
+	/*
+	 * Each edit gives ids to the pieces it makes and none of them back: once most
+	 * ids are of segments gone from the figure, drop them (SegmentIds.compact).
+	 * The sets over the ids are renumbered in place, keeping their order.
+	 */
+	private void compactIds()
+	{
+		int live = _allMinimalSegments.size();
+		if (_nonMinimalSegments instanceof SegmentSet) live += _nonMinimalSegments.size();
+
+		if (_segmentIds.size() < 2 * live + 64) return;
+
+		List<SegmentSet> sets = new ArrayList<SegmentSet>();
+		for (Set<Segment> set : Arrays.asList(_implicitSegments, _allMinimalSegments, _nonMinimalSegments)) {
+			if (set instanceof SegmentSet) sets.add((SegmentSet) set);
+		}
+
+		_segmentIds.compact(sets.toArray(new SegmentSet[0]));
+	}
+
+	/*
+	 * @return true if the segment database is a map built (and kept up to date) by this class
+	 */
+	private boolean isMaterialized() { return !_lazy && _segmentDatabase != null; }
+
+	private void index(Segment segment)
+	{
+		_minimalAt.computeIfAbsent(segment.getPoint1(), (pt) -> new HashSet<Segment>()).add(segment);
+		_minimalAt.computeIfAbsent(segment.getPoint2(), (pt) -> new HashSet<Segment>()).add(segment);
+	}
+
+	private void unindex(Segment segment)
+	{
+		for (Point vertex : List.of(segment.getPoint1(), segment.getPoint2())) {
+			Set<Segment> around = _minimalAt.get(vertex);
+			if (around == null) continue;
+
+			around.remove(segment);
+			if (around.isEmpty()) _minimalAt.remove(vertex);
+		}
+	}
+
+	/*
+	 * Remove a retired implicit point from the point database, unless the
+	 * user named a point at that location.
+	 */
+	private void retirePoint(Point pt)
+	{
+		String name = _pointDatabase.getName(pt);
+
+		if (name != null && isImplicitName(name)) _pointDatabase.remove(pt);
+	}
+
+	/*
+	 * @return true if the name is one given to points the user did not name
+	 */
+	private static boolean isImplicitName(String name)
+	{
+		return name.equals(Point.ANONYMOUS) || name.startsWith("*_");
+	}
 }
@@ -0,0 +1,79 @@
+package preprocessor.delegates;
+
+/**
+ * Counts collected during one broad-phase run of implicit point computation;
+ * compares the work done against the pairwise (brute force) scan.
+ */
+public class BroadPhaseStatistics
+{
+	protected int _segments;
+	protected int _cells;
+	protected double _cellSize;
+	protected long _pairsSharingCell;
+	protected long _candidatePairs;
+	protected long _intersections;
+	protected long _splits;
+
+	public void setSegments(int segments) { _segments = segments; }
+	public void setCells(int cells, double cellSize) { _cells = cells; _cellSize = cellSize; }
+	public void setPairsSharingCell(long pairs) { _pairsSharingCell = pairs; }
+	public void setCandidatePairs(long pairs) { _candidatePairs = pairs; }
+	public void setIntersections(long intersections) { _intersections = intersections; }
+	public void setSplits(long splits) { _splits = splits; }
+
+	public int getSegments() { return _segments; }
+	public int getCells() { return _cells; }
+	public double getCellSize() { return _cellSize; }
+
+	/*
+	 * @return the number of (cell, pair) combinations examined; a pair sharing several cells is counted once per cell
+	 */
+	public long getPairsSharingCell() { return _pairsSharingCell; }
+
+	/*
+	 * @return the number of distinct pairs actually intersected
+	 */
+	public long getCandidatePairs() { return _candidatePairs; }
+
+	/*
+	 * @return the number of candidate pairs which cross in the middle of both segments
+	 */
+	public long getIntersections() { return _intersections; }
+
+	/*
+	 * @return the number of candidate pairs where an endpoint of one segment splits the other
+	 */
+	public long getSplits() { return _splits; }
+
+	/*
+	 * @return the number of pairs a pairwise scan would intersect: n (n - 1) / 2
+	 */
+	public long getBruteForcePairs() { return (long) _segments * (_segments - 1) / 2; }
+
+	/*
+	 * @return the number of pairs never intersected thanks to the grid
+	 */
+	public long getRejectedPairs() { return getBruteForcePairs() - _candidatePairs; }
+
+	/*
+	 * @return the fraction [0, 1] of the pairwise scan rejected by the grid
+	 */
+	public double getRejectionRate()
+	{
+		long brute = getBruteForcePairs();
+
+		return brute == 0 ? 0 : (double) getRejectedPairs() / brute;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "segments: " + _segments +
+			   ", cells: " + _cells + " (size " + _cellSize + ")" +
+			   ", brute force pairs: " + getBruteForcePairs() +
+			   ", candidate pairs: " + _candidatePairs +
+			   ", rejected: " + getRejectedPairs() +
+			   ", intersections: " + _intersections +
+			   ", splits: " + _splits;
+	}
+}
@@ -0,0 +1,75 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import geometry_objects.Segment;
+
+/**
+ * Splits the segments of a figure into independent parts:
+ *
+ *          A                 D
+ *         / \               / \
+ *        B---C             E---F        two parts: {AB, BC, CA}, {DE, EF, FD}
+ *
+ * Two segments are in the same part when their bounding boxes overlap
+ * (which covers sharing an endpoint), directly or through other segments.
+ * Segments of different parts cannot cross, share a point or lie on a
+ * common chain of minimal segments, so each part can be analyzed on its own.
+ */
+public class ComponentPartition
+{
+	/**
+	 * @param segments -- the segments of a figure
+	 * @return the parts as ascending indices into segments; ordered by their first index
+	 */
+	public static List<int[]> partition(List<Segment> segments)
+	{
+		int[] parent = new int[segments.size()];
+		for (int s = 0; s < parent.length; s++) parent[s] = s;
+
+		for (long pair : new UniformGrid(segments).candidatePairs(null)) {
+			union(parent, ImplicitPointPreprocessor.first(pair), ImplicitPointPreprocessor.second(pair));
+		}
+
+		// indices are visited in ascending order: parts come out ordered by first index
+		Map<Integer, int[]> parts = new LinkedHashMap<Integer, int[]>();
+		Map<Integer, Integer> sizes = new LinkedHashMap<Integer, Integer>();
+
+		for (int s = 0; s < parent.length; s++) {
+			int root = find(parent, s);
+
+			int[] part = parts.computeIfAbsent(root, (r) -> new int[4]);
+			int size = sizes.getOrDefault(root, 0);
+
+			if (size == part.length) parts.put(root, part = Arrays.copyOf(part, 2 * size));
+
+			part[size] = s;
+			sizes.put(root, size + 1);
+		}
+
+		List<int[]> result = new ArrayList<int[]>(parts.size());
+		for (Map.Entry<Integer, int[]> entry : parts.entrySet()) {
+			result.add(Arrays.copyOf(entry.getValue(), sizes.get(entry.getKey())));
+		}
+
+		return result;
+	}
+
+	private static int find(int[] parent, int s)
+	{
+		while (parent[s] != s) {
+			parent[s] = parent[parent[s]];
+			s = parent[s];
+		}
+		return s;
+	}
+
+	private static void union(int[] parent, int s, int t)
+	{
+		parent[find(parent, s)] = find(parent, t);
+	}
+}
@@ -0,0 +1,331 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.LineIntersectionDelegate;
+import geometry_objects.delegates.intersections.SegmentIntersectionDelegate;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import geometry_objects.points.RationalPoint;
+import utilities.math.analytic_geometry.GeometryPredicates;
+
+/**
+ * The distinct crossing points of a list of segments, each with the segments
+ * incident to it.
+ *
+ *                 \  |  /
+ *                   \|/
+ *                ----*----        k segments through one point are k(k-1)/2
+ *                   /|\           crossing pairs, but one entry here
+ *                 /  |  \
+ *
+ * Crossings are added by coordinates (truncated as a Point's are); the
+ * crossings of segments with integer endpoints are first looked up by their
+ * exact (rational) point, so the same point is never told apart by rounding.
+ * The first crossing at a point allocates its Point and puts it in the point
+ * database; later crossings at that point only add their segments to it.
+ * Points are kept in the order they are found.
+ *
+ * A segment split at an endpoint of another (a T-junction, or a collinear
+ * segment overlapping it) adds no point; it is recorded in the provenance only.
+ */
+public class CrossingTable
+{
+	private static final int EMPTY = 0;
+
+	private final List<Segment> _segments;
+	private final PointDatabase _database;
+	private final IntersectionProvenance _provenance;
+
+	// distinct crossing points in the order found
+	private Point[] _points;
+	private int _count;
+
+	// point id -> the first pair of segments found crossing there (see ImplicitPointPreprocessor.pair)
+	private long[] _firstPair;
+
+	// point id -> indices of its incident segments (the first _multiplicity[id] entries)
+	private int[][] _incident;
+	private int[] _multiplicity;
+
+	// open addressing on the coordinates: slot -> point id + 1 (EMPTY if free)
+	private int[] _table;
+
+	// exact crossing point -> point id (crossings of segments with integer endpoints)
+	private Map<RationalPoint, Integer> _exact;
+
+	// Points with more incident segments than this test membership in a bit set
+	private static final int SCAN_LIMIT = 16;
+
+	// point id -> its incident segments as a bit set (only past SCAN_LIMIT)
+	private BitSet[] _members;
+
+	/**
+	 * @param segments -- the segments the crossings are between
+	 * @param database -- receives each distinct crossing point once; may be null
+	 * @param provenance -- (out) records the segments split by each point; may be null
+	 */
+	public CrossingTable(List<Segment> segments, PointDatabase database, IntersectionProvenance provenance)
+	{
+		_segments = segments;
+		_database = database;
+		_provenance = provenance;
+
+		_points = new Point[16];
+		_firstPair = new long[16];
+		_incident = new int[16][];
+		_multiplicity = new int[16];
+		_members = new BitSet[16];
+		_table = new int[32];
+		_exact = new HashMap<RationalPoint, Integer>();
+	}
+
+	public int size() { return _count; }
+
+	/**
+	 * Segments i and j cross at (x, y).
+	 *
+	 * @param x -- truncated x-coordinate (see MathUtilities.removeLessEpsilon)
+	 * @param y -- truncated y-coordinate
+	 * @return the crossing point (the same object for every crossing at (x, y))
+	 */
+	public Point add(int i, int j, double x, double y)
+	{
+		// segments with integer endpoints cross at an exact point: found by that first
+		RationalPoint exact = exactCrossing(i, j);
+
+		int id = exact == null ? -1 : _exact.getOrDefault(exact, -1);
+
+		// (distinct exact points closer than the truncation are one Point of the figure)
+		if (id == -1) id = find(x, y);
+		if (id == -1) id = insert(new Point("", x, y), ImplicitPointPreprocessor.pair(i, j));
+
+		if (exact != null) _exact.putIfAbsent(exact, id);
+
+		incident(id, i);
+		incident(id, j);
+
+		return _points[id];
+	}
+
+	/*
+	 * @return the exact crossing point of segments i and j; null unless both have integer endpoints
+	 */
+	private RationalPoint exactCrossing(int i, int j)
+	{
+		Segment s = _segments.get(i);
+		Segment t = _segments.get(j);
+
+		if (!RationalPoint.isIntegral(s.getPoint1()) || !RationalPoint.isIntegral(s.getPoint2()) ||
+			!RationalPoint.isIntegral(t.getPoint1()) || !RationalPoint.isIntegral(t.getPoint2())) return null;
+
+		return LineIntersectionDelegate.exactIntersection(s, t);
+	}
+
+	/**
+	 * Segments i and j meet at (x, y).
+	 *
+	 * @param meeting -- how they meet (see SegmentIntersectionDelegate.meet)
+	 */
+	public void meet(int i, int j, int meeting, double x, double y)
+	{
+		if (meeting == SegmentIntersectionDelegate.CROSSING) add(i, j, x, y);
+		else if (meeting == SegmentIntersectionDelegate.SPLITS_FIRST) split(i, j, x, y);
+		else if (meeting == SegmentIntersectionDelegate.SPLITS_SECOND) split(j, i, x, y);
+	}
+
+	/**
+	 * Segment i is split at (x, y), an endpoint of segment j in the middle of i.
+	 *
+	 *                  |
+	 *           -------+-------       j stands on i: i is split, j is not
+	 *
+	 * The endpoint is a point of the figure already, not a crossing: it is
+	 * only recorded in the provenance.
+	 */
+	public void split(int i, int j, double x, double y)
+	{
+		if (_provenance == null) return;
+
+		double[] xy = { x, y };
+		Segment standing = _segments.get(j);
+
+		_provenance.split(_segments.get(i), standing, SegmentIntersectionDelegate.endpoint(standing, xy));
+	}
+
+	/**
+	 * Segments i and j lie on one line and overlap: each is split at the
+	 * endpoints of the other in its middle.
+	 *
+	 *           A-----C=====B-----D       AB is split at C, CD at B
+	 *
+	 * As at a T-junction, the endpoints are points of the figure already: this
+	 * is only recorded in the provenance.
+	 */
+	public void overlap(int i, int j)
+	{
+		if (_provenance == null) return;
+
+		splitAtEndpoints(_segments.get(i), _segments.get(j));
+		splitAtEndpoints(_segments.get(j), _segments.get(i));
+	}
+
+	private void splitAtEndpoints(Segment segment, Segment other)
+	{
+		for (Point endpoint : new Point[] { other.getPoint1(), other.getPoint2() }) {
+			if (!segment.has(endpoint) &&
+				GeometryPredicates.between(endpoint, segment.getPoint1(), segment.getPoint2())) {
+				_provenance.split(segment, other, endpoint);
+			}
+		}
+	}
+
+	/**
+	 * @return the distinct crossing points in the order found
+	 */
+	public Set<Point> getPoints()
+	{
+		Set<Point> points = new LinkedHashSet<Point>();
+
+		for (int id = 0; id < _count; id++) points.add(_points[id]);
+
+		return points;
+	}
+
+	/**
+	 * @return the encoded pair (i, j) of the first crossing found at pt; -1 if pt is not a crossing point
+	 */
+	public long getFirstPair(Point pt)
+	{
+		int id = find(pt.getX(), pt.getY());
+
+		return id == -1 ? -1 : _firstPair[id];
+	}
+
+	/**
+	 * @return the number of segments crossing at pt (0 if pt is not a crossing point)
+	 */
+	public int getMultiplicity(Point pt)
+	{
+		int id = find(pt.getX(), pt.getY());
+
+		return id == -1 ? 0 : _multiplicity[id];
+	}
+
+	/**
+	 * @return the segments crossing at pt, in the order found (empty if pt is not a crossing point)
+	 */
+	public List<Segment> getCrossingSegments(Point pt)
+	{
+		int id = find(pt.getX(), pt.getY());
+		if (id == -1) return Collections.emptyList();
+
+		List<Segment> segments = new ArrayList<Segment>(_multiplicity[id]);
+		for (int k = 0; k < _multiplicity[id]; k++) segments.add(_segments.get(_incident[id][k]));
+
+		return segments;
+	}
+
+	private static int hash(double x, double y)
+	{
+		// the low bits of the doubles of grid coordinates are mostly 0: mix the high bits down
+		long h = Double.doubleToLongBits(x) * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(y);
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+
+		return (int) h;
+	}
+
+	// the id of the point at (x, y); -1 if there is none
+	private int find(double x, double y)
+	{
+		int mask = _table.length - 1;
+
+		for (int slot = hash(x, y) & mask; _table[slot] != EMPTY; slot = (slot + 1) & mask) {
+			Point pt = _points[_table[slot] - 1];
+
+			if (pt.getX() == x && pt.getY() == y) return _table[slot] - 1;
+		}
+
+		return -1;
+	}
+
+	private int insert(Point pt, long firstPair)
+	{
+		if (_count == _points.length) {
+			_points = Arrays.copyOf(_points, 2 * _count);
+			_firstPair = Arrays.copyOf(_firstPair, 2 * _count);
+			_incident = Arrays.copyOf(_incident, 2 * _count);
+			_multiplicity = Arrays.copyOf(_multiplicity, 2 * _count);
+			_members = Arrays.copyOf(_members, 2 * _count);
+		}
+
+		int id = _count++;
+
+		_points[id] = pt;
+		_firstPair[id] = firstPair;
+		_incident[id] = new int[2];
+
+		if (4 * _count > _table.length) rehash(2 * _table.length);
+		else place(id);
+
+		if (_database != null) _database.put(pt.getName(), pt.getX(), pt.getY());
+
+		return id;
+	}
+
+	private void place(int id)
+	{
+		int mask = _table.length - 1;
+		int slot = hash(_points[id].getX(), _points[id].getY()) & mask;
+
+		while (_table[slot] != EMPTY) slot = (slot + 1) & mask;
+
+		_table[slot] = id + 1;
+	}
+
+	private void rehash(int size)
+	{
+		_table = new int[size];
+
+		for (int id = 0; id < _count; id++) place(id);
+	}
+
+	// segment (index) passes through point id
+	private void incident(int id, int segment)
+	{
+		if (isIncident(id, segment)) return;
+
+		if (_multiplicity[id] == _incident[id].length) _incident[id] = Arrays.copyOf(_incident[id], 2 * _multiplicity[id]);
+		_incident[id][_multiplicity[id]++] = segment;
+
+		if (_members[id] != null) _members[id].set(segment);
+		else if (_multiplicity[id] > SCAN_LIMIT) {
+			_members[id] = new BitSet(_segments.size());
+			for (int k = 0; k < _multiplicity[id]; k++) _members[id].set(_incident[id][k]);
+		}
+
+		if (_provenance != null) _provenance.split(_segments.get(segment), _points[id]);
+	}
+
+	private boolean isIncident(int id, int segment)
+	{
+		if (_members[id] != null) return _members[id].get(segment);
+
+		for (int k = 0; k < _multiplicity[id]; k++) {
+			if (_incident[id][k] == segment) return true;
+		}
+
+		return false;
+	}
+}
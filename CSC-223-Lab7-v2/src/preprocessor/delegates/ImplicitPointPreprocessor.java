@@ -1,44 +1,256 @@
-package preprocessor.delegates;
-
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Set;
-
-import geometry_objects.Segment;
-import geometry_objects.points.Point;
-import geometry_objects.points.PointDatabase;
-
-public class ImplicitPointPreprocessor
-{
-	/**
-	 * It is possible that some of the defined segments intersect
-	 * and points that are not named; we need to capture those
-	 * points and name them.
-	 * 
-	 * Algorithm:
-	 * 		Check if each segment intersects with any other. If yes,
-	 * 		add the intersection point to PointDatabase.
-	 */
-	public static Set<Point> compute(PointDatabase givenPoints, List<Segment> givenSegments)
-	{
-		Set<Point> implicitPoints = new LinkedHashSet<Point>();
-		int size = givenSegments.size();
-
-        for (int i = 0; i < size; i++) {
-			for (int j = i + 1; j < size; j++) {
-				Segment a = givenSegments.get(i);
-				Segment b = givenSegments.get(j);
-
-				Point pt = a.segmentIntersection(b);
-				
-				if (pt != null) {
-					implicitPoints.add(pt);
-					givenPoints.put(pt.getName(), pt.getX(), pt.getY());
-				}
-			}
-		}
-
-		return implicitPoints;
-	}
-
-}
+package preprocessor.delegates;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.SegmentIntersectionDelegate;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+
+public class ImplicitPointPreprocessor
+{
+	// Figures with more segments than this go through a broad phase (see computeUniformGrid)
+	// rather than being scanned pairwise
+	public static final int BROAD_PHASE_THRESHOLD = 64;
+
+	/**
+	 * It is possible that some of the defined segments intersect
+	 * and points that are not named; we need to capture those
+	 * points and name them.
+	 *
+	 * Algorithm:
+	 * 		Check if each segment intersects with any other. If yes,
+	 * 		add the intersection point to PointDatabase.
+	 *
+	 * 		Figures with more than BROAD_PHASE_THRESHOLD segments are handled with a
+	 * 		uniform grid (see computeUniformGrid); the result is the same either way.
+	 * 		The grid costs some 20% on dense figures, where most pairs meet, and saves
+	 * 		about half of the time on sparse ones; below the threshold its setup is
+	 * 		not paid back. The sweep (computeSweepLine) is only used when asked for.
+	 */
+	public static Set<Point> compute(PointDatabase givenPoints, List<Segment> givenSegments)
+	{
+		return compute(givenPoints, givenSegments, null);
+	}
+
+	/**
+	 * @param provenance -- (out) records the given segments each implicit point splits; may be null
+	 */
+	public static Set<Point> compute(PointDatabase givenPoints, List<Segment> givenSegments,
+			                         IntersectionProvenance provenance)
+	{
+		return computeCrossings(givenPoints, givenSegments, provenance).getPoints();
+	}
+
+	/**
+	 * As compute, but the result also holds the segments crossing at each
+	 * implicit point (and so its multiplicity): k segments through one point
+	 * are one entry, and one Point, put in the database once.
+	 *
+	 * The provenance also records the splits of collinear segments which
+	 * overlap, at the endpoints of one in the middle of the other (see
+	 * splitOverlaps): every given segment is split at each named point of
+	 * the figure's segments lying inside it.
+	 *
+	 * @param provenance -- (out) records the given segments each implicit point splits; may be null
+	 */
+	public static CrossingTable computeCrossings(PointDatabase givenPoints, List<Segment> givenSegments,
+			                                     IntersectionProvenance provenance)
+	{
+		CrossingTable crossings = new CrossingTable(givenSegments, givenPoints, provenance);
+
+		long[] pairs = null;
+
+		if (givenSegments.size() > BROAD_PHASE_THRESHOLD) {
+			pairs = new UniformGrid(givenSegments).candidatePairs(null);
+
+			crossPairs(crossings, givenSegments, pairs, null);
+		}
+		else crossBruteForce(crossings, givenSegments);
+
+		if (provenance != null) splitOverlaps(crossings, givenSegments, pairs);
+
+		return crossings;
+	}
+
+	/*
+	 * Collinear segments which overlap share a stretch of their line rather than a
+	 * point (meet reports NONE for them); each is split at the endpoints of the other
+	 * lying in its middle (CrossingTable.overlap).
+	 *
+	 * @param pairs -- candidate pairs: every pair whose bounding boxes overlap; null for all pairs
+	 */
+	private static void splitOverlaps(CrossingTable crossings, List<Segment> givenSegments, long[] pairs)
+	{
+		if (pairs != null) {
+			for (long pair : pairs) {
+				if (SegmentNormalization.overlap(givenSegments.get(first(pair)), givenSegments.get(second(pair)))) {
+					crossings.overlap(first(pair), second(pair));
+				}
+			}
+			return;
+		}
+
+		int size = givenSegments.size();
+
+		for (int i = 0; i < size; i++) {
+			for (int j = i + 1; j < size; j++) {
+				Segment s = givenSegments.get(i);
+				Segment t = givenSegments.get(j);
+
+				if (s.boundsOverlap(t) && SegmentNormalization.overlap(s, t)) crossings.overlap(i, j);
+			}
+		}
+	}
+
+	/**
+	 * Pairwise scan of all segments: O(n^2) intersection tests.
+	 */
+	public static Set<Point> computeBruteForce(PointDatabase givenPoints, List<Segment> givenSegments)
+	{
+		CrossingTable crossings = new CrossingTable(givenSegments, givenPoints, null);
+
+		crossBruteForce(crossings, givenSegments);
+
+		return crossings.getPoints();
+	}
+
+	private static void crossBruteForce(CrossingTable crossings, List<Segment> givenSegments)
+	{
+		double[] xy = new double[2];
+		int size = givenSegments.size();
+
+        for (int i = 0; i < size; i++) {
+			for (int j = i + 1; j < size; j++) {
+				int meeting = SegmentIntersectionDelegate.meet(givenSegments.get(i), givenSegments.get(j), xy);
+
+				if (meeting != SegmentIntersectionDelegate.NONE) crossings.meet(i, j, meeting, xy[0], xy[1]);
+			}
+		}
+	}
+
+	/**
+	 * Sweep-line computation: only pairs of segments which actually cross are
+	 * intersected; O((n + k) log n) for k crossings.
+	 *
+	 * The crossing pairs are visited in the same (i, j) order as the pairwise scan
+	 * so the set of points and the naming of points in the database are identical.
+	 */
+	public static Set<Point> computeSweepLine(PointDatabase givenPoints, List<Segment> givenSegments)
+	{
+		long[] pairs = new SweepLineIntersector(givenSegments).run();
+
+		return computePairs(givenPoints, givenSegments, pairs, null, null);
+	}
+
+	/**
+	 * Uniform grid broad phase: only segments whose bounding boxes share a
+	 * grid cell are intersected. Well suited to figures that are dense in
+	 * one spot and sparse everywhere else.
+	 *
+	 * The pairs are visited in the same (i, j) order as the pairwise scan.
+	 */
+	public static Set<Point> computeUniformGrid(PointDatabase givenPoints, List<Segment> givenSegments)
+	{
+		return computeUniformGrid(givenPoints, givenSegments, null);
+	}
+
+	/**
+	 * @param statistics -- (out) grid and pair counts for this run; may be null
+	 */
+	public static Set<Point> computeUniformGrid(PointDatabase givenPoints, List<Segment> givenSegments,
+			                                    BroadPhaseStatistics statistics)
+	{
+		long[] pairs = new UniformGrid(givenSegments).candidatePairs(statistics);
+
+		return computePairs(givenPoints, givenSegments, pairs, statistics, null);
+	}
+
+	/**
+	 * Parallel pairwise scan on the common fork/join pool.
+	 */
+	public static Set<Point> computeParallel(PointDatabase givenPoints, List<Segment> givenSegments)
+	{
+		return computeParallel(givenPoints, givenSegments, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Parallel pairwise scan: the rows of the pair space are split across the pool
+	 * and each task collects its intersection points on its own. The database is
+	 * only updated afterwards (on this thread) in row-major pair order, so the
+	 * generated names are the same as a sequential run for any number of threads.
+	 *
+	 * @param pool -- the pool running the intersection tasks
+	 */
+	public static Set<Point> computeParallel(PointDatabase givenPoints, List<Segment> givenSegments, ForkJoinPool pool)
+	{
+		List<SegmentCrossing> crossings = pool.invoke(new IntersectionTask(givenSegments, 0, givenSegments.size()));
+
+		CrossingTable table = new CrossingTable(givenSegments, givenPoints, null);
+
+		for (SegmentCrossing crossing : crossings) {
+			table.meet(crossing.getFirst(), crossing.getSecond(), crossing.getMeeting(), crossing.getX(), crossing.getY());
+		}
+
+		return table.getPoints();
+	}
+
+	/**
+	 * Intersect only the given candidate pairs of segments: the pairs are first
+	 * narrowed down to those which meet, as a batch (see SegmentBatch).
+	 *
+	 * @param pairs -- encoded (i, j) pairs with i < j; sorted ascending
+	 * @param statistics -- (out) receives the number of crossing and splitting pairs; may be null
+	 * @param provenance -- (out) records the segments split by each point; may be null
+	 */
+	static Set<Point> computePairs(PointDatabase givenPoints, List<Segment> givenSegments, long[] pairs,
+			                       BroadPhaseStatistics statistics, IntersectionProvenance provenance)
+	{
+		CrossingTable crossings = new CrossingTable(givenSegments, givenPoints, provenance);
+
+		crossPairs(crossings, givenSegments, pairs, statistics);
+
+		return crossings.getPoints();
+	}
+
+	private static void crossPairs(CrossingTable crossings, List<Segment> givenSegments, long[] pairs,
+			                       BroadPhaseStatistics statistics)
+	{
+		double[] xy = new double[2];
+		long intersections = 0;
+		long splits = 0;
+
+		for (long pair : SegmentBatch.create(givenSegments).meeting(pairs)) {
+			Segment a = givenSegments.get(first(pair));
+			Segment b = givenSegments.get(second(pair));
+
+			int meeting = SegmentIntersectionDelegate.meet(a, b, xy);
+
+			if (meeting == SegmentIntersectionDelegate.CROSSING) intersections++;
+			else if (meeting != SegmentIntersectionDelegate.NONE) splits++;
+
+			if (meeting != SegmentIntersectionDelegate.NONE) crossings.meet(first(pair), second(pair), meeting, xy[0], xy[1]);
+		}
+
+		if (statistics != null) {
+			statistics.setIntersections(intersections);
+			statistics.setSplits(splits);
+		}
+	}
+
+	//
+	// A pair of segment indices (i < j) packed into a long; the natural order
+	// of the longs is the row-major order of the pairs.
+	//
+	public static long pair(int i, int j)
+	{
+		if (i > j) return pair(j, i);
+
+		return ((long) i << 32) | j;
+	}
+
+	public static int first(long pair) { return (int) (pair >>> 32); }
+	public static int second(long pair) { return (int) pair; }
+}
@@ -0,0 +1,131 @@
+package preprocessor.delegates;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+/**
+ * Records, while implicit points are computed, which given segments each
+ * implicit point came from. Since an implicit point is a crossing in the
+ * middle of both segments, it splits both of them:
+ *
+ *                 A         C
+ *                   \     /
+ *                     \ /
+ *                      *           AB is split into A* and *B
+ *                     / \          CD is split into C* and *D
+ *                   /     \
+ *                 D         B
+ *
+ * An endpoint of one segment lying in the middle of another (a T-junction)
+ * splits the other one only; the standing segment is recorded as meeting
+ * there but is not split:
+ *
+ *                      D
+ *                      |
+ *                      |
+ *                 A----C----B      CD stands on AB: AB is split into AC and CB
+ */
+public class IntersectionProvenance
+{
+	// given segment -> points strictly between its endpoints (ordered lexicographically)
+	protected Map<Segment, SortedSet<Point>> _splits;
+
+	// point -> given segments meeting at that point (split there, or standing on one split there)
+	protected Map<Point, Set<Segment>> _crossings;
+
+	public IntersectionProvenance()
+	{
+		_splits = new LinkedHashMap<Segment, SortedSet<Point>>();
+		_crossings = new TreeMap<Point, Set<Segment>>();
+	}
+
+	/**
+	 * Record that segments a and b cross at pt.
+	 */
+	public void record(Segment a, Segment b, Point pt)
+	{
+		split(a, pt);
+		split(b, pt);
+	}
+
+	/**
+	 * Record that pt lies strictly between the endpoints of segment.
+	 */
+	public void split(Segment segment, Point pt)
+	{
+		_splits.computeIfAbsent(segment, (s) -> new TreeSet<Point>()).add(pt);
+		_crossings.computeIfAbsent(pt, (p) -> new LinkedHashSet<Segment>()).add(segment);
+	}
+
+	/**
+	 * Record that segment is split at pt, an endpoint of standing.
+	 */
+	public void split(Segment segment, Segment standing, Point pt)
+	{
+		split(segment, pt);
+		_crossings.get(pt).add(standing);
+	}
+
+	/**
+	 * Add everything recorded by another provenance (of disjoint segments).
+	 */
+	public void merge(IntersectionProvenance that)
+	{
+		that._splits.forEach((segment, points) -> _splits.computeIfAbsent(segment, (s) -> new TreeSet<Point>()).addAll(points));
+		that._crossings.forEach((pt, segments) -> _crossings.computeIfAbsent(pt, (p) -> new LinkedHashSet<Segment>()).addAll(segments));
+	}
+
+	/**
+	 * Forget that pt splits segment (or that segment stands on another at pt).
+	 */
+	public void unsplit(Segment segment, Point pt)
+	{
+		SortedSet<Point> points = _splits.get(segment);
+		if (points != null) {
+			points.remove(pt);
+			if (points.isEmpty()) _splits.remove(segment);
+		}
+
+		Set<Segment> segments = _crossings.get(pt);
+		if (segments != null) {
+			segments.remove(segment);
+			if (segments.isEmpty()) _crossings.remove(pt);
+		}
+	}
+
+	/*
+	 * @return the points splitting the segment (empty if it is not split)
+	 */
+	public SortedSet<Point> getSplits(Segment segment)
+	{
+		SortedSet<Point> points = _splits.get(segment);
+
+		return points == null ? Collections.emptySortedSet() : Collections.unmodifiableSortedSet(points);
+	}
+
+	public boolean isSplit(Segment segment) { return _splits.containsKey(segment); }
+
+	/*
+	 * @return the given segments meeting at pt (empty if pt splits none)
+	 */
+	public Set<Segment> getCrossingSegments(Point pt)
+	{
+		Set<Segment> segments = _crossings.get(pt);
+
+		return segments == null ? Collections.emptySet() : Collections.unmodifiableSet(segments);
+	}
+
+	/*
+	 * @return every split segment along with the points splitting it
+	 */
+	public Map<Segment, SortedSet<Point>> asMap() { return Collections.unmodifiableMap(_splits); }
+}
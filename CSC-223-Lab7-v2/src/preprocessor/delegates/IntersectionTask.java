@@ -0,0 +1,87 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.SegmentIntersectionDelegate;
+
+/**
+ * Fork/join task meeting the pairs (i, j), j > i, for a range of rows i.
+ *
+ * A task touches no shared state: it collects its crossings in a list of its
+ * own, in row-major pair order. Joining the left half before the right half
+ * keeps that order, so the combined list is exactly the sequence a sequential
+ * pairwise scan produces.
+ */
+class IntersectionTask extends RecursiveTask<List<SegmentCrossing>>
+{
+	private static final long serialVersionUID = 1L;
+
+	// Ranges with fewer pairs than this are intersected directly
+	private static final long MIN_PAIRS = 2048;
+
+	// tasks are never serialized (ForkJoinTask is Serializable only by inheritance)
+	private final transient List<Segment> _segments;
+	private final int _firstRow;
+	private final int _lastRow; // exclusive
+
+	IntersectionTask(List<Segment> segments, int firstRow, int lastRow)
+	{
+		_segments = segments;
+		_firstRow = firstRow;
+		_lastRow = lastRow;
+	}
+
+	@Override
+	protected List<SegmentCrossing> compute()
+	{
+		if (_lastRow - _firstRow < 2 || pairs(_firstRow, _lastRow) < MIN_PAIRS) return intersectRows();
+
+		// rows get shorter as i grows: split where half of the pairs fall on each side
+		int split = _firstRow + 1;
+		long half = pairs(_firstRow, _lastRow) / 2;
+		while (split < _lastRow - 1 && pairs(_firstRow, split) < half) split++;
+
+		IntersectionTask left = new IntersectionTask(_segments, _firstRow, split);
+		IntersectionTask right = new IntersectionTask(_segments, split, _lastRow);
+
+		right.fork();
+
+		List<SegmentCrossing> crossings = left.compute();
+		crossings.addAll(right.join());
+
+		return crossings;
+	}
+
+	private List<SegmentCrossing> intersectRows()
+	{
+		List<SegmentCrossing> crossings = new ArrayList<SegmentCrossing>();
+		double[] xy = new double[2];
+		int size = _segments.size();
+
+		for (int i = _firstRow; i < _lastRow; i++) {
+			for (int j = i + 1; j < size; j++) {
+				int meeting = SegmentIntersectionDelegate.meet(_segments.get(i), _segments.get(j), xy);
+
+				if (meeting != SegmentIntersectionDelegate.NONE) crossings.add(new SegmentCrossing(i, j, meeting, xy[0], xy[1]));
+			}
+		}
+
+		return crossings;
+	}
+
+	/*
+	 * @return the number of pairs (i, j), j > i, in rows [first, last)
+	 */
+	private long pairs(int first, int last)
+	{
+		long n = _segments.size();
+
+		return rowsFrom(first, n) - rowsFrom(last, n);
+	}
+
+	// pairs in rows [row, n): (n - row)(n - row - 1) / 2
+	private static long rowsFrom(long row, long n) { return (n - row) * (n - row - 1) / 2; }
+}
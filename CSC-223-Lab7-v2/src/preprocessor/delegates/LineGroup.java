@@ -0,0 +1,193 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+/**
+ * The points of a maximal chain of minimal segments along one line:
+ *
+ *        A-------B----*-----C-------D
+ *
+ * The chain is ordered by position along the line; consecutive points form the
+ * minimal segments and every other pair of points a non-minimal segment.
+ */
+public class LineGroup
+{
+	// The points on the line in order (parametric coordinate along the line)
+	protected List<Point> _points;
+
+	public LineGroup(List<Point> points)
+	{
+		_points = points;
+	}
+
+	public List<Point> getPoints() { return _points; }
+	public int size() { return _points.size(); }
+
+	/*
+	 * @return the number of non-minimal segments on this line: (p - 1)(p - 2) / 2
+	 */
+	public long numNonMinimalSegments()
+	{
+		long p = _points.size();
+
+		return p < 3 ? 0 : (p - 1) * (p - 2) / 2;
+	}
+
+	/*
+	 * @return the minimal segments of this line: consecutive points
+	 */
+	public List<Segment> getMinimalSegments()
+	{
+		List<Segment> minimalSegs = new ArrayList<Segment>();
+
+		for (int i = 0; i + 1 < _points.size(); i++) {
+			minimalSegs.add(new Segment(_points.get(i), _points.get(i + 1)));
+		}
+
+		return minimalSegs;
+	}
+
+	/**
+	 * Adds the segments of this line spanning two or more minimal segments:
+	 *  all (i, j) with j - i >= 2.
+	 *
+	 * @param nonMinimalSegs -- the collection to add to
+	 */
+	public void addNonMinimalSegments(Collection<Segment> nonMinimalSegs)
+	{
+		for (int i = 0; i < _points.size(); i++) {
+			for (int j = i + 2; j < _points.size(); j++) {
+				nonMinimalSegs.add(new Segment(_points.get(i), _points.get(j)));
+			}
+		}
+	}
+
+	/**
+	 * Groups minimal segments by their supporting line (see group(Collection, Map)),
+	 * each minimal segment being a segment of its own.
+	 */
+	public static List<LineGroup> group(Collection<Segment> minimalSegs)
+	{
+		return group(minimalSegs, Collections.emptyMap());
+	}
+
+	/**
+	 * Groups minimal segments by their supporting line.
+	 *
+	 * Two minimal segments P-X and P-Y belong to the same line when they are
+	 * pieces of the same segment, or pieces of (exactly) collinear segments:
+	 *
+	 *        A-----*-----B-------C        A*, *B: pieces of AB; *B, BC: AB and BC collinear
+	 *
+	 * The collinear segments may meet end to end (as AB and BC) or overlap; the
+	 * pieces of overlapping segments are cut at each other's endpoints (see
+	 * ImplicitPointPreprocessor.computeCrossings), so they share vertices too.
+	 *
+	 * The pieces of a segment split at a crossing are not exactly collinear (the
+	 * crossing is truncated), so lines are not told by the points alone; nor
+	 * within a tolerance, which would bend a line through a point near it.
+	 *
+	 * @param minimalSegs -- a set of minimal segments
+	 * @param sources -- minimal segment -> the segment it is a piece of (itself if absent)
+	 * @return the lines (of at least one segment) formed by the segments
+	 */
+	public static List<LineGroup> group(Collection<Segment> minimalSegs, Map<Segment, Segment> sources)
+	{
+		List<Segment> segments = new ArrayList<Segment>(minimalSegs);
+
+		// vertex -> indices of the segments with that endpoint
+		Map<Point, List<Integer>> incident = new TreeMap<Point, List<Integer>>();
+		for (int s = 0; s < segments.size(); s++) {
+			incident.computeIfAbsent(segments.get(s).getPoint1(), (pt) -> new ArrayList<Integer>()).add(s);
+			incident.computeIfAbsent(segments.get(s).getPoint2(), (pt) -> new ArrayList<Integer>()).add(s);
+		}
+
+		// union segments which continue each other through a shared vertex
+		int[] parent = new int[segments.size()];
+		for (int s = 0; s < parent.length; s++) parent[s] = s;
+
+		for (List<Integer> around : incident.values()) {
+			for (int a = 0; a < around.size(); a++) {
+				for (int b = a + 1; b < around.size(); b++) {
+					Segment s = segments.get(around.get(a));
+					Segment t = segments.get(around.get(b));
+
+					if (continues(sources.getOrDefault(s, s), sources.getOrDefault(t, t))) {
+						union(parent, around.get(a), around.get(b));
+					}
+				}
+			}
+		}
+
+		// collect the points of each line
+		Map<Integer, Set<Point>> lines = new HashMap<Integer, Set<Point>>();
+		for (int s = 0; s < segments.size(); s++) {
+			Set<Point> line = lines.computeIfAbsent(find(parent, s), (root) -> new LinkedHashSet<Point>());
+
+			line.add(segments.get(s).getPoint1());
+			line.add(segments.get(s).getPoint2());
+		}
+
+		List<LineGroup> groups = new ArrayList<LineGroup>();
+		for (Set<Point> line : lines.values()) {
+			groups.add(new LineGroup(orderAlongLine(line)));
+		}
+
+		return groups;
+	}
+
+	/*
+	 * @return true if pieces (meeting at a vertex) of the segments s and t lie on one line:
+	 *         s and t are the same segment, or they are collinear
+	 */
+	private static boolean continues(Segment s, Segment t)
+	{
+		return s.equals(t) || s.isCollinearWith(t);
+	}
+
+	/*
+	 * Order collinear points by the parametric coordinate t in P = A + t (B - A)
+	 * for two points A, B of the line.
+	 */
+	private static List<Point> orderAlongLine(Set<Point> line)
+	{
+		List<Point> points = new ArrayList<Point>(line);
+
+		if (points.size() < 3) return points;
+
+		Point origin = points.get(0);
+		double dx = points.get(1).getX() - origin.getX();
+		double dy = points.get(1).getY() - origin.getY();
+
+		points.sort(Comparator.comparingDouble(
+				(pt) -> (pt.getX() - origin.getX()) * dx + (pt.getY() - origin.getY()) * dy));
+
+		return points;
+	}
+
+	private static int find(int[] parent, int s)
+	{
+		while (parent[s] != s) {
+			parent[s] = parent[parent[s]];
+			s = parent[s];
+		}
+		return s;
+	}
+
+	private static void union(int[] parent, int s, int t)
+	{
+		parent[find(parent, s)] = find(parent, t);
+	}
+}
@@ -0,0 +1,78 @@
+package preprocessor.delegates;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+
+/**
+ * A read-only segment database backed by the lines of a figure.
+ *
+ * Every pair of points on a line is a segment of the figure (minimal when the
+ * points are adjacent, non-minimal otherwise), so the database is described by
+ * the lines alone:
+ *
+ *        A-------B----*-----C       AB, B*, *C, AC, A*, BC
+ *
+ * The segments are kept encoded by their line and positions (LineSubsegments):
+ * lookups check that both endpoints lie on a common line; segment objects are
+ * only created as they are looked up or iterated. Memory is proportional to
+ * the number of points on the lines, not the number of segments.
+ */
+public class LineSegmentView extends AbstractMap<Segment, Segment>
+{
+	// every segment of the lines (span 1 and up)
+	protected LineSubsegments _segments;
+
+	public LineSegmentView(List<LineGroup> lines)
+	{
+		_segments = new LineSubsegments(lines, 1);
+	}
+
+	@Override
+	public int size() { return _segments.size(); }
+
+	@Override
+	public boolean containsKey(Object key) { return _segments.contains(key); }
+
+	/**
+	 * @param key -- a segment
+	 * @return the segment of the figure with the same endpoints (null if there is none)
+	 */
+	@Override
+	public Segment get(Object key) { return _segments.get(key); }
+
+	@Override
+	public Set<Map.Entry<Segment, Segment>> entrySet()
+	{
+		return new AbstractSet<Map.Entry<Segment, Segment>>()
+		{
+			@Override
+			public int size() { return _segments.size(); }
+
+			@Override
+			public Iterator<Map.Entry<Segment, Segment>> iterator()
+			{
+				Iterator<Segment> segments = _segments.iterator();
+
+				return new Iterator<Map.Entry<Segment, Segment>>()
+				{
+					@Override
+					public boolean hasNext() { return segments.hasNext(); }
+
+					@Override
+					public Map.Entry<Segment, Segment> next()
+					{
+						Segment segment = segments.next();
+
+						return new AbstractMap.SimpleImmutableEntry<Segment, Segment>(segment, segment);
+					}
+				};
+			}
+		};
+	}
+}
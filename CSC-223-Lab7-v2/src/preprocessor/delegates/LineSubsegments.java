@@ -0,0 +1,236 @@
+package preprocessor.delegates;
+
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+/**
+ * The segments between the points of lines, stored as the lines alone.
+ *
+ * Each line keeps the ids of its points in order once; the segment between
+ * positions i < j of line k is the long
+ *
+ *        code(k, i, j) = (k << 40) | (i << 20) | j
+ *
+ * and a Segment object is created only when asked for (segment(code)). With
+ * a minimum span of 2, the set holds the non-minimal segments of the lines:
+ *
+ *        A-------B----*-----C       span 1: AB, B*, *C      (minimal)
+ *                                   span 2: AC, A*, BC ...  (non-minimal)
+ *
+ * Membership is O(1): one lookup of each endpoint's id, then a scan of the
+ * (few) lines through the endpoint. Memory is proportional to the number of
+ * points on the lines, not the number of segments.
+ */
+public class LineSubsegments extends AbstractSet<Segment>
+{
+	private static final int POSITION_BITS = 20;
+	private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+
+	// Limits of the encoding
+	public static final int MAX_POINTS_PER_LINE = 1 << POSITION_BITS;
+	public static final int MAX_LINES = 1 << (63 - 2 * POSITION_BITS);
+
+	// segments span at least this many consecutive points (1: all, 2: non-minimal)
+	protected final int _minSpan;
+
+	// point id -> point
+	protected Point[] _points;
+	protected Map<Point, Integer> _ids;
+
+	// line -> ids of its points in order
+	protected int[][] _lines;
+
+	// point id -> (line << 32) | position, for each line through the point (ascending lines):
+	//   the entries of point p are _incidence[_start[p]] to _incidence[_start[p + 1] - 1]
+	protected int[] _start;
+	protected long[] _incidence;
+
+	protected int _size;
+
+	/**
+	 * @param lines -- lines of points (each point at most once per line)
+	 * @param minSpan -- 1 for every segment of the lines; 2 for the non-minimal segments only
+	 */
+	public LineSubsegments(List<LineGroup> lines, int minSpan)
+	{
+		if (lines.size() > MAX_LINES) throw new IllegalArgumentException("Too many lines: " + lines.size());
+
+		_minSpan = minSpan;
+		_ids = new HashMap<Point, Integer>();
+		_lines = new int[lines.size()][];
+
+		long size = 0;
+		for (int line = 0; line < lines.size(); line++) {
+			List<Point> points = lines.get(line).getPoints();
+
+			if (points.size() > MAX_POINTS_PER_LINE) throw new IllegalArgumentException("Too many points on a line: " + points.size());
+
+			_lines[line] = new int[points.size()];
+			for (int position = 0; position < points.size(); position++) {
+				_lines[line][position] = _ids.computeIfAbsent(points.get(position), (pt) -> _ids.size());
+			}
+
+			size += count(points.size());
+		}
+
+		_size = (int) Math.min(size, Integer.MAX_VALUE);
+
+		_points = new Point[_ids.size()];
+		_ids.forEach((pt, id) -> _points[id] = pt);
+
+		index();
+	}
+
+	/*
+	 * Lines through each point, as compressed rows: count, prefix-sum, fill.
+	 */
+	private void index()
+	{
+		_start = new int[_points.length + 1];
+
+		for (int[] line : _lines) {
+			for (int id : line) _start[id + 1]++;
+		}
+		for (int id = 0; id < _points.length; id++) _start[id + 1] += _start[id];
+
+		_incidence = new long[_start[_points.length]];
+
+		int[] next = new int[_points.length];
+		for (int line = 0; line < _lines.length; line++) {
+			for (int position = 0; position < _lines[line].length; position++) {
+				int id = _lines[line][position];
+
+				_incidence[_start[id] + next[id]++] = ((long) line << 32) | position;
+			}
+		}
+	}
+
+	// segments (i, j) with j - i >= _minSpan on a line of p points
+	private long count(long p)
+	{
+		return p <= _minSpan ? 0 : (p - _minSpan) * (p - _minSpan + 1) / 2;
+	}
+
+	public static long code(int line, int i, int j)
+	{
+		return ((long) line << 2 * POSITION_BITS) | ((long) i << POSITION_BITS) | j;
+	}
+
+	public static int line(long code) { return (int) (code >>> 2 * POSITION_BITS); }
+	public static int first(long code) { return (int) ((code >>> POSITION_BITS) & POSITION_MASK); }
+	public static int second(long code) { return (int) (code & POSITION_MASK); }
+
+	/**
+	 * @return the code of the segment; -1 if it is not in this set
+	 */
+	public long code(Segment segment)
+	{
+		Integer id1 = _ids.get(segment.getPoint1());
+		Integer id2 = _ids.get(segment.getPoint2());
+
+		if (id1 == null || id2 == null) return -1;
+
+		// both lists ascend by line: merge them
+		int p = _start[id1];
+		int q = _start[id2];
+
+		while (p < _start[id1 + 1] && q < _start[id2 + 1]) {
+			int line1 = (int) (_incidence[p] >>> 32);
+			int line2 = (int) (_incidence[q] >>> 32);
+
+			if (line1 < line2) p++;
+			else if (line2 < line1) q++;
+			else {
+				int i = (int) _incidence[p];
+				int j = (int) _incidence[q];
+
+				if (Math.abs(i - j) < _minSpan) return -1;
+
+				return code(line1, Math.min(i, j), Math.max(i, j));
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return a new segment for the code
+	 */
+	public Segment segment(long code)
+	{
+		int[] line = _lines[line(code)];
+
+		return new Segment(_points[line[first(code)]], _points[line[second(code)]]);
+	}
+
+	/**
+	 * @return the segment of this set with the same endpoints (a new object); null if there is none
+	 */
+	public Segment get(Object obj)
+	{
+		if (!(obj instanceof Segment)) return null;
+
+		long code = code((Segment) obj);
+
+		return code == -1 ? null : segment(code);
+	}
+
+	@Override
+	public boolean contains(Object obj) { return obj instanceof Segment && code((Segment) obj) != -1; }
+
+	@Override
+	public int size() { return _size; }
+
+	@Override
+	public Iterator<Segment> iterator()
+	{
+		return new Iterator<Segment>()
+		{
+			private int _line = 0;
+			private int _i = 0;
+			private int _j = _minSpan - 1;
+
+			{ advance(); }
+
+			// move to the next pair, skipping lines too short to have one
+			private void advance()
+			{
+				_j++;
+
+				while (_line < _lines.length) {
+					if (_j < _lines[_line].length) return;
+
+					_i++;
+					_j = _i + _minSpan;
+
+					if (_j >= _lines[_line].length) {
+						_line++;
+						_i = 0;
+						_j = _minSpan;
+					}
+				}
+			}
+
+			@Override
+			public boolean hasNext() { return _line < _lines.length; }
+
+			@Override
+			public Segment next()
+			{
+				if (!hasNext()) throw new NoSuchElementException();
+
+				Segment segment = segment(code(_line, _i, _j));
+				advance();
+
+				return segment;
+			}
+		};
+	}
+}
@@ -0,0 +1,87 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import geometry_objects.Segment;
+
+/**
+ * Fork/join task building the non-minimal segments of a range of lines.
+ *
+ * The lines are independent: a task touches no shared state and collects its
+ * segments in a list of its own. A line of p points has (p - 1)(p - 2) / 2
+ * non-minimal segments, so ranges are split where half of the segments (not
+ * half of the lines) fall on each side; one long line is not split.
+ */
+public class NonMinimalTask extends RecursiveTask<List<Segment>>
+{
+	private static final long serialVersionUID = 1L;
+
+	// Ranges with fewer segments than this are built directly
+	private static final long MIN_SEGMENTS = 4096;
+
+	// tasks are never serialized (ForkJoinTask is Serializable only by inheritance)
+	private final transient List<LineGroup> _lines;
+	private final int _first;
+	private final int _last; // exclusive
+
+	// _cost[k] = the number of non-minimal segments of lines [0, k)
+	private final long[] _cost;
+
+	public NonMinimalTask(List<LineGroup> lines)
+	{
+		this(lines, 0, lines.size(), prefixCost(lines));
+	}
+
+	private NonMinimalTask(List<LineGroup> lines, int first, int last, long[] cost)
+	{
+		_lines = lines;
+		_first = first;
+		_last = last;
+		_cost = cost;
+	}
+
+	/*
+	 * @return the number of non-minimal segments of the lines in [first, last)
+	 */
+	private long cost(int first, int last) { return _cost[last] - _cost[first]; }
+
+	private static long[] prefixCost(List<LineGroup> lines)
+	{
+		long[] cost = new long[lines.size() + 1];
+
+		for (int k = 0; k < lines.size(); k++) cost[k + 1] = cost[k] + lines.get(k).numNonMinimalSegments();
+
+		return cost;
+	}
+
+	@Override
+	protected List<Segment> compute()
+	{
+		if (_last - _first < 2 || cost(_first, _last) < MIN_SEGMENTS) return build();
+
+		int split = _first + 1;
+		long half = cost(_first, _last) / 2;
+		while (split < _last - 1 && cost(_first, split) < half) split++;
+
+		NonMinimalTask left = new NonMinimalTask(_lines, _first, split, _cost);
+		NonMinimalTask right = new NonMinimalTask(_lines, split, _last, _cost);
+
+		right.fork();
+
+		List<Segment> segments = left.compute();
+		segments.addAll(right.join());
+
+		return segments;
+	}
+
+	private List<Segment> build()
+	{
+		List<Segment> segments = new ArrayList<Segment>((int) Math.min(cost(_first, _last), Integer.MAX_VALUE - 8));
+
+		for (int k = _first; k < _last; k++) _lines.get(k).addNonMinimalSegments(segments);
+
+		return segments;
+	}
+}
@@ -0,0 +1,207 @@
+package preprocessor.delegates;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.List;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.SegmentDelegate;
+import utilities.math.analytic_geometry.GeometryPredicates;
+
+/**
+ * The endpoints of a list of segments as a structure of arrays, for testing
+ * many candidate pairs at once.
+ *
+ * meeting(pairs) keeps the pairs whose segments cross in the middle of both
+ * (GeometryPredicates.crossInMiddle) or where an endpoint of one lies in the
+ * middle of the other (SegmentDelegate.standingOn). Pairs are handled in blocks:
+ *
+ *     (1) gather the endpoint coordinates of the block into flat arrays
+ *     (2) evaluate the four orientation determinants of every pair and
+ *         their rounding error bounds in straight-line loops over the block
+ *     (3) decide each pair from the signs; a pair with an uncertain sign
+ *         (nearly degenerate, as is an endpoint on the other segment) is
+ *         decided by the exact predicates
+ *
+ * The floating point evaluation is the same as in GeometryPredicates, so the
+ * result is exactly that of testing each pair with crossInMiddle and standingOn.
+ *
+ * Step (2) is scalar here; VectorSegmentBatch evaluates it in vector lanes.
+ * That kernel is in the optional src-vector source root (see README.md), so
+ * the default build needs no incubator module. create(segments) returns the
+ * vector kernel when it was compiled in and the jdk.incubator.vector module
+ * is present at run time (--add-modules jdk.incubator.vector), and this class
+ * otherwise.
+ */
+public class SegmentBatch
+{
+	// Pairs handled per block (the block arrays stay in the L1 cache)
+	public static final int BLOCK_SIZE = 256;
+
+	// Relative error bound of a 2x2 determinant evaluated in doubles (as in GeometryPredicates)
+	protected static final double ERROR_BOUND = (3.0 + 16.0 * Math.ulp(1.0) / 2) * Math.ulp(1.0) / 2;
+
+	// VectorSegmentBatch's constructor; null when the vector module is absent
+	private static final Constructor<? extends SegmentBatch> VECTOR_KERNEL = vectorKernel();
+
+	private final List<Segment> _segments;
+
+	private final double[] _x1;
+	private final double[] _y1;
+	private final double[] _x2;
+	private final double[] _y2;
+
+	// block arrays: endpoints of segments p1p2 and q1q2 of each pair
+	private final double[] _px1 = new double[BLOCK_SIZE];
+	private final double[] _py1 = new double[BLOCK_SIZE];
+	private final double[] _px2 = new double[BLOCK_SIZE];
+	private final double[] _py2 = new double[BLOCK_SIZE];
+	private final double[] _qx1 = new double[BLOCK_SIZE];
+	private final double[] _qy1 = new double[BLOCK_SIZE];
+	private final double[] _qx2 = new double[BLOCK_SIZE];
+	private final double[] _qy2 = new double[BLOCK_SIZE];
+
+	// block arrays: orientation of q1, q2 against p1p2 and of p1, p2 against q1q2
+	private final double[][] _det = new double[4][BLOCK_SIZE];
+	private final double[][] _bound = new double[4][BLOCK_SIZE];
+
+	public SegmentBatch(List<Segment> segments)
+	{
+		int size = segments.size();
+
+		_segments = segments;
+
+		_x1 = new double[size];
+		_y1 = new double[size];
+		_x2 = new double[size];
+		_y2 = new double[size];
+
+		for (int i = 0; i < size; i++) {
+			Segment segment = segments.get(i);
+
+			_x1[i] = segment.getPoint1().getX();
+			_y1[i] = segment.getPoint1().getY();
+			_x2[i] = segment.getPoint2().getX();
+			_y2[i] = segment.getPoint2().getY();
+		}
+	}
+
+	/**
+	 * @return a batch over the segments: the vector kernel when available, this scalar one otherwise
+	 */
+	public static SegmentBatch create(List<Segment> segments)
+	{
+		if (VECTOR_KERNEL != null) {
+			try {
+				return VECTOR_KERNEL.newInstance(segments);
+			}
+			catch (ReflectiveOperationException e) {
+				// fall back to the scalar kernel
+			}
+		}
+
+		return new SegmentBatch(segments);
+	}
+
+	/*
+	 * The vector kernel is loaded by name only when its module is present,
+	 * so the scalar path never links against jdk.incubator.vector (and the
+	 * kernel may be left out of the build altogether).
+	 */
+	private static Constructor<? extends SegmentBatch> vectorKernel()
+	{
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+
+		try {
+			return Class.forName("preprocessor.delegates.VectorSegmentBatch")
+					    .asSubclass(SegmentBatch.class)
+					    .getDeclaredConstructor(List.class);
+		}
+		catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param pairs -- encoded (i, j) pairs of segment indices (see ImplicitPointPreprocessor.pair)
+	 * @return the pairs whose segments cross or stand on one another, in the given order
+	 */
+	public long[] meeting(long[] pairs)
+	{
+		long[] meeting = new long[Math.max(16, pairs.length / 8)];
+		int count = 0;
+
+		for (int start = 0; start < pairs.length; start += BLOCK_SIZE) {
+			int length = Math.min(BLOCK_SIZE, pairs.length - start);
+
+			gather(pairs, start, length);
+
+			orientation(_px1, _py1, _px2, _py2, _qx1, _qy1, _det[0], _bound[0], 0, length);
+			orientation(_px1, _py1, _px2, _py2, _qx2, _qy2, _det[1], _bound[1], 0, length);
+			orientation(_qx1, _qy1, _qx2, _qy2, _px1, _py1, _det[2], _bound[2], 0, length);
+			orientation(_qx1, _qy1, _qx2, _qy2, _px2, _py2, _det[3], _bound[3], 0, length);
+
+			for (int k = 0; k < length; k++) {
+				if (decide(pairs[start + k], k)) {
+					if (count == meeting.length) meeting = Arrays.copyOf(meeting, 2 * count);
+
+					meeting[count++] = pairs[start + k];
+				}
+			}
+		}
+
+		return Arrays.copyOf(meeting, count);
+	}
+
+	private void gather(long[] pairs, int start, int length)
+	{
+		for (int k = 0; k < length; k++) {
+			int i = ImplicitPointPreprocessor.first(pairs[start + k]);
+			int j = ImplicitPointPreprocessor.second(pairs[start + k]);
+
+			_px1[k] = _x1[i];
+			_py1[k] = _y1[i];
+			_px2[k] = _x2[i];
+			_py2[k] = _y2[i];
+			_qx1[k] = _x1[j];
+			_qy1[k] = _y1[j];
+			_qx2[k] = _x2[j];
+			_qy2[k] = _y2[j];
+		}
+	}
+
+	/**
+	 * (b - a) x (c - a) for the pairs from, ..., to - 1 of the block, and the bound on its rounding error
+	 */
+	protected void orientation(double[] ax, double[] ay, double[] bx, double[] by,
+			                   double[] cx, double[] cy, double[] det, double[] bound, int from, int to)
+	{
+		for (int k = from; k < to; k++) {
+			double left = (bx[k] - ax[k]) * (cy[k] - ay[k]);
+			double right = (by[k] - ay[k]) * (cx[k] - ax[k]);
+
+			det[k] = left - right;
+			bound[k] = ERROR_BOUND * (Math.abs(left) + Math.abs(right));
+		}
+	}
+
+	private boolean decide(long pair, int k)
+	{
+		for (int o = 0; o < 4; o++) {
+			// an uncertain sign: decide exactly
+			if (!(Math.abs(_det[o][k]) > _bound[o][k])) return exact(pair);
+		}
+
+		// no sign is zero: no endpoint lies on the other segment
+		return (_det[0][k] > 0) != (_det[1][k] > 0) && (_det[2][k] > 0) != (_det[3][k] > 0);
+	}
+
+	private boolean exact(long pair)
+	{
+		Segment p = _segments.get(ImplicitPointPreprocessor.first(pair));
+		Segment q = _segments.get(ImplicitPointPreprocessor.second(pair));
+
+		return GeometryPredicates.crossInMiddle(p.getPoint1(), p.getPoint2(), q.getPoint1(), q.getPoint2()) ||
+			   SegmentDelegate.standingOn(p, q);
+	}
+}
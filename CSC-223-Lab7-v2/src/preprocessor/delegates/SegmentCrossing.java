@@ -0,0 +1,28 @@
+package preprocessor.delegates;
+
+/**
+ * Where the given segments at indices i < j meet (see SegmentIntersectionDelegate.meet).
+ */
+class SegmentCrossing
+{
+	protected final int _first;
+	protected final int _second;
+	protected final int _meeting;
+	protected final double _x;
+	protected final double _y;
+
+	SegmentCrossing(int first, int second, int meeting, double x, double y)
+	{
+		_first = first;
+		_second = second;
+		_meeting = meeting;
+		_x = x;
+		_y = y;
+	}
+
+	public int getFirst() { return _first; }
+	public int getSecond() { return _second; }
+	public int getMeeting() { return _meeting; }
+	public double getX() { return _x; }
+	public double getY() { return _y; }
+}
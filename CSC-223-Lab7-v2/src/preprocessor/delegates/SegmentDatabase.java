@@ -0,0 +1,204 @@
+package preprocessor.delegates;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import utilities.LongHashMap;
+
+/**
+ * The segment database of a figure: each <key, value> has the same segment
+ * object (key == value).
+ *
+ * Points are numbered as they are first seen; a segment is keyed by the
+ * numbers of its endpoints packed in a long, smaller number first:
+ *
+ *        key(AB) = key(BA) = (min(id A, id B) << 32) | max(id A, id B)
+ *
+ * so a lookup is two point lookups and one probe of a primitive long-keyed
+ * table, with no segment hashing or endpoint comparisons.
+ *
+ * Only endpoints of stored segments are numbered: each number counts the
+ * segments using it, and once the last one is removed the point is dropped
+ * and its number is reused. Incremental edits therefore do not grow the
+ * numbering past the points actually in the database.
+ *
+ * The two point lookups cost more than hashing the segment: on 200,000 random
+ * segments (SegmentDatabaseBenchmark) a HashMap<Segment, Segment> inserts and
+ * looks up about three times faster. Preprocessor therefore uses a HashMap
+ * unless asked for this database (setPackedSegmentDatabase). Only the packed
+ * table by itself (LongHashMap, keys already known) is faster than the HashMap.
+ */
+public class SegmentDatabase extends AbstractMap<Segment, Segment>
+{
+	// point -> its number
+	protected Map<Point, Integer> _ids;
+
+	// number -> how many stored segments have that endpoint (a segment AA counts twice)
+	protected int[] _uses;
+
+	// numbers released by removed points, reused before new ones
+	protected int[] _free;
+	protected int _numFree;
+
+	protected LongHashMap<Segment> _segments;
+
+	public SegmentDatabase()
+	{
+		this(8);
+	}
+
+	/**
+	 * @param expected -- the number of segments expected (the table is sized once for them)
+	 */
+	public SegmentDatabase(int expected)
+	{
+		_ids = new HashMap<Point, Integer>();
+		_uses = new int[8];
+		_free = new int[8];
+		_segments = new LongHashMap<Segment>(expected);
+	}
+
+	/**
+	 * @return the key of the segment with endpoints numbered id1 and id2
+	 */
+	public static long key(int id1, int id2)
+	{
+		return ((long) Math.min(id1, id2) << 32) | Math.max(id1, id2);
+	}
+
+	// the number of pt; -1 if pt has none and none is to be assigned
+	private int id(Point pt, boolean assign)
+	{
+		Integer id = _ids.get(pt);
+
+		if (id != null) return id;
+		if (!assign) return -1;
+
+		int number = _numFree > 0 ? _free[--_numFree] : _ids.size();
+		if (number == _uses.length) _uses = Arrays.copyOf(_uses, 2 * number);
+
+		_ids.put(pt, number);
+
+		return number;
+	}
+
+	// one more (or one less) stored segment has pt as an endpoint; an unused point is dropped
+	private void use(Point pt, int delta)
+	{
+		int id = _ids.get(pt);
+
+		_uses[id] += delta;
+		if (_uses[id] > 0) return;
+
+		_ids.remove(pt);
+
+		if (_numFree == _free.length) _free = Arrays.copyOf(_free, 2 * _numFree);
+		_free[_numFree++] = id;
+	}
+
+	// the key of the segment; -1 if an endpoint has no number (and none is to be assigned)
+	private long key(Object obj, boolean assign)
+	{
+		if (!(obj instanceof Segment)) return -1;
+
+		Segment segment = (Segment) obj;
+
+		int id1 = id(segment.getPoint1(), assign);
+		int id2 = id(segment.getPoint2(), assign);
+
+		return id1 == -1 || id2 == -1 ? -1 : key(id1, id2);
+	}
+
+	@Override
+	public int size() { return _segments.size(); }
+
+	@Override
+	public Segment get(Object key)
+	{
+		long k = key(key, false);
+
+		return k == -1 ? null : _segments.get(k);
+	}
+
+	@Override
+	public boolean containsKey(Object key) { return get(key) != null; }
+
+	/**
+	 * @param key -- a segment
+	 * @param value -- the segment stored for it (normally key itself)
+	 */
+	@Override
+	public Segment put(Segment key, Segment value)
+	{
+		Segment previous = _segments.put(key(key, true), value);
+
+		if (previous == null) {
+			use(key.getPoint1(), 1);
+			use(key.getPoint2(), 1);
+		}
+
+		return previous;
+	}
+
+	@Override
+	public Segment remove(Object key)
+	{
+		long k = key(key, false);
+		if (k == -1) return null;
+
+		Segment removed = _segments.remove(k);
+
+		if (removed != null) {
+			use(((Segment) key).getPoint1(), -1);
+			use(((Segment) key).getPoint2(), -1);
+		}
+
+		return removed;
+	}
+
+	@Override
+	public void clear()
+	{
+		_ids.clear();
+		Arrays.fill(_uses, 0);
+		_numFree = 0;
+		_segments.clear();
+	}
+
+	@Override
+	public Set<Map.Entry<Segment, Segment>> entrySet()
+	{
+		return new AbstractSet<Map.Entry<Segment, Segment>>()
+		{
+			@Override
+			public int size() { return _segments.size(); }
+
+			@Override
+			public Iterator<Map.Entry<Segment, Segment>> iterator()
+			{
+				Iterator<Segment> segments = _segments.iterator();
+
+				return new Iterator<Map.Entry<Segment, Segment>>()
+				{
+					@Override
+					public boolean hasNext() { return segments.hasNext(); }
+
+					@Override
+					public Map.Entry<Segment, Segment> next()
+					{
+						Segment segment = segments.next();
+
+						return new AbstractMap.SimpleImmutableEntry<Segment, Segment>(segment, segment);
+					}
+				};
+			}
+		};
+	}
+}
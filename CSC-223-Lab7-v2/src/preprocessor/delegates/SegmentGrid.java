@@ -0,0 +1,87 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+
+/**
+ * A uniform spatial hash over the bounding boxes of a changing set of
+ * segments (UniformGrid is built once, over a fixed list).
+ *
+ * Each segment is bucketed into every cell its bounding box covers. Segments
+ * with overlapping bounding boxes share the cell holding the corner of the
+ * overlap, so near(segment) finds every segment whose box overlaps its box
+ * while looking only at the cells that box covers.
+ *
+ * The cell size is chosen (as UniformGrid chooses it) for the segments the
+ * grid is built with and then stays fixed; cells are counted from the origin.
+ */
+public class SegmentGrid
+{
+	private final double _cellSize;
+
+	// cell (packed column, row) -> the segments whose bounding box covers that cell
+	private final Map<Long, List<Segment>> _cells;
+
+	public SegmentGrid(Collection<Segment> segments)
+	{
+		_cellSize = new UniformGrid(new ArrayList<Segment>(segments)).getCellSize();
+		_cells = new HashMap<Long, List<Segment>>();
+
+		segments.forEach((segment) -> insert(segment));
+	}
+
+	public double getCellSize() { return _cellSize; }
+
+	public void add(Segment segment) { insert(segment); }
+
+	private void insert(Segment segment)
+	{
+		for (int col = cell(segment.getMinX()); col <= cell(segment.getMaxX()); col++) {
+			for (int row = cell(segment.getMinY()); row <= cell(segment.getMaxY()); row++) {
+				_cells.computeIfAbsent(key(col, row), (key) -> new ArrayList<Segment>(2)).add(segment);
+			}
+		}
+	}
+
+	public void remove(Segment segment)
+	{
+		for (int col = cell(segment.getMinX()); col <= cell(segment.getMaxX()); col++) {
+			for (int row = cell(segment.getMinY()); row <= cell(segment.getMaxY()); row++) {
+				List<Segment> bucket = _cells.get(key(col, row));
+				if (bucket == null) continue;
+
+				bucket.remove(segment);
+				if (bucket.isEmpty()) _cells.remove(key(col, row));
+			}
+		}
+	}
+
+	/**
+	 * @return the segments of the grid sharing a cell with the bounding box of segment
+	 *         (a superset of those whose bounding box overlaps it)
+	 */
+	public Set<Segment> near(Segment segment)
+	{
+		Set<Segment> near = new LinkedHashSet<Segment>();
+
+		for (int col = cell(segment.getMinX()); col <= cell(segment.getMaxX()); col++) {
+			for (int row = cell(segment.getMinY()); row <= cell(segment.getMaxY()); row++) {
+				List<Segment> bucket = _cells.get(key(col, row));
+				if (bucket != null) near.addAll(bucket);
+			}
+		}
+
+		return near;
+	}
+
+	private int cell(double coordinate) { return (int) Math.floor(coordinate / _cellSize); }
+
+	private static long key(int column, int row) { return ((long) column << 32) | (row & 0xFFFFFFFFL); }
+}
@@ -0,0 +1,107 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+
+/**
+ * Dense ids for the segments of a figure: 0, 1, 2, ... in the order the
+ * segments are first seen. Sets of segments over the same ids (SegmentSet)
+ * can be combined as bit sets.
+ *
+ * An id outlives the segment's use: compact drops the ids of segments no
+ * longer in any set in use and renumbers the rest.
+ */
+public class SegmentIds
+{
+	protected Map<Segment, Integer> _ids;
+
+	// id -> the segment first given that id
+	protected List<Segment> _segments;
+
+	public SegmentIds()
+	{
+		_ids = new HashMap<Segment, Integer>();
+		_segments = new ArrayList<Segment>();
+	}
+
+	public int size() { return _segments.size(); }
+
+	/**
+	 * @return the id of the segment (assigned if it has none)
+	 */
+	public int id(Segment segment)
+	{
+		Integer id = _ids.get(segment);
+
+		if (id != null) return id;
+
+		_ids.put(segment, _segments.size());
+		_segments.add(segment);
+
+		return _segments.size() - 1;
+	}
+
+	/**
+	 * @return the id of the segment; -1 if it has none
+	 */
+	public int find(Object obj)
+	{
+		Integer id = _ids.get(obj);
+
+		return id == null ? -1 : id;
+	}
+
+	public Segment get(int id) { return _segments.get(id); }
+
+	/**
+	 * Drop the ids of the segments in none of the live sets; the others are
+	 * renumbered 0, 1, 2, ... in the order of their ids, and so are the live
+	 * sets over these ids (each keeps its order of iteration). Any other set
+	 * over these ids must not be used afterward.
+	 *
+	 * @param live -- the sets still in use (sets over other ids are left as they are)
+	 * @return the number of ids dropped
+	 */
+	public int compact(SegmentSet... live)
+	{
+		Set<SegmentSet> sets = Collections.newSetFromMap(new IdentityHashMap<SegmentSet, Boolean>());
+		for (SegmentSet set : live) {
+			if (set._ids == this) sets.add(set);
+		}
+
+		// the ids in use
+		long[] used = new long[Math.max(1, (size() + 63) >>> 6)];
+		for (SegmentSet set : sets) {
+			for (int w = 0; w < Math.min(used.length, set._words.length); w++) used[w] |= set._words[w];
+		}
+
+		int[] renumbered = new int[size()];
+		List<Segment> segments = new ArrayList<Segment>();
+		_ids.clear();
+
+		for (int id = 0; id < renumbered.length; id++) {
+			if ((used[id >>> 6] & (1L << id)) == 0) {
+				renumbered[id] = -1;
+				continue;
+			}
+
+			renumbered[id] = segments.size();
+			_ids.put(_segments.get(id), segments.size());
+			segments.add(_segments.get(id));
+		}
+
+		int dropped = _segments.size() - segments.size();
+		_segments = segments;
+
+		sets.forEach((set) -> set.renumber(renumbered, segments.size()));
+
+		return dropped;
+	}
+}
@@ -0,0 +1,222 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import utilities.math.analytic_geometry.GeometryPredicates;
+
+/**
+ * Input normalization: collinear segments which overlap are replaced by the
+ * pieces of their union between consecutive endpoints.
+ *
+ *     given:        A-----------C
+ *                         B-----------D        AC and BD overlap on BC
+ *
+ *     normalized:   A-----B-----C-----D        AB, BC, CD
+ *
+ * Overlapping segments all cross the same other segments and none of them is
+ * minimal; the pieces do not overlap, so each crossing is found once and the
+ * pieces are the minimal segments of the line. Repeated segments become one.
+ *
+ * Segments which overlap no other segment are kept as given (same objects).
+ * Each piece records the given segments covering it, so results can be traced
+ * back to the input.
+ */
+public class SegmentNormalization
+{
+	// the normalized segments, in the order of the given segments they came from
+	protected Set<Segment> _segments;
+
+	// normalized segment -> given segments covering it
+	protected Map<Segment, Set<Segment>> _sources;
+
+	// given segment -> the normalized segments it is made of
+	protected Map<Segment, List<Segment>> _pieces;
+
+	protected boolean _changed;
+
+	private SegmentNormalization()
+	{
+		_segments = new LinkedHashSet<Segment>();
+		_sources = new HashMap<Segment, Set<Segment>>();
+		_pieces = new LinkedHashMap<Segment, List<Segment>>();
+	}
+
+	/**
+	 * @return the normalized segments
+	 */
+	public Set<Segment> getSegments() { return Collections.unmodifiableSet(_segments); }
+
+	/**
+	 * @return true if some given segments overlapped (and were replaced)
+	 */
+	public boolean isChanged() { return _changed; }
+
+	/*
+	 * @return the given segments a normalized segment covers part of (itself if it was kept as given)
+	 */
+	public Set<Segment> getSources(Segment normalized)
+	{
+		Set<Segment> sources = _sources.get(normalized);
+
+		return sources == null ? Collections.emptySet() : Collections.unmodifiableSet(sources);
+	}
+
+	/*
+	 * @return the normalized segments making up a given segment, in order along it
+	 */
+	public List<Segment> getPieces(Segment given)
+	{
+		List<Segment> pieces = _pieces.get(given);
+
+		return pieces == null ? Collections.emptyList() : Collections.unmodifiableList(pieces);
+	}
+
+	/**
+	 * @param given -- the segments of a figure
+	 * @return the normalization of the segments
+	 */
+	public static SegmentNormalization normalize(Collection<Segment> given)
+	{
+		List<Segment> segments = new ArrayList<Segment>(new LinkedHashSet<Segment>(given));
+
+		// union collinear segments which overlap (their bounding boxes overlap too)
+		int[] parent = new int[segments.size()];
+		for (int s = 0; s < parent.length; s++) parent[s] = s;
+
+		for (long pair : new UniformGrid(segments).candidatePairs(null)) {
+			int i = ImplicitPointPreprocessor.first(pair);
+			int j = ImplicitPointPreprocessor.second(pair);
+
+			if (overlap(segments.get(i), segments.get(j))) union(parent, i, j);
+		}
+
+		Map<Integer, List<Segment>> components = new LinkedHashMap<Integer, List<Segment>>();
+		for (int s = 0; s < segments.size(); s++) {
+			components.computeIfAbsent(find(parent, s), (root) -> new ArrayList<Segment>()).add(segments.get(s));
+		}
+
+		SegmentNormalization normalization = new SegmentNormalization();
+
+		for (List<Segment> component : components.values()) {
+			if (component.size() == 1) normalization.keep(component.get(0));
+			else normalization.merge(component);
+		}
+
+		return normalization;
+	}
+
+	private void keep(Segment segment)
+	{
+		_segments.add(segment);
+		_sources.put(segment, new LinkedHashSet<Segment>(List.of(segment)));
+		_pieces.put(segment, List.of(segment));
+	}
+
+	/*
+	 * The union of overlapping collinear segments is one interval of the line: cut it
+	 * at every endpoint.
+	 */
+	private void merge(List<Segment> component)
+	{
+		List<Point> points = orderAlongLine(component);
+
+		_changed = true;
+
+		for (Segment segment : component) _pieces.put(segment, new ArrayList<Segment>());
+
+		for (int p = 0; p + 1 < points.size(); p++) {
+			Segment piece = new Segment(points.get(p), points.get(p + 1));
+			Set<Segment> sources = new LinkedHashSet<Segment>();
+
+			for (Segment segment : component) {
+				if (covers(segment, piece)) {
+					sources.add(segment);
+					_pieces.get(segment).add(piece);
+				}
+			}
+
+			_segments.add(piece);
+			_sources.put(piece, sources);
+		}
+	}
+
+	/**
+	 * @return true if s and t lie (exactly) on one line and share more than an endpoint
+	 */
+	public static boolean overlap(Segment s, Segment t)
+	{
+		if (s.equals(t)) return true;
+
+		Point s1 = s.getPoint1();
+		Point s2 = s.getPoint2();
+		Point t1 = t.getPoint1();
+		Point t2 = t.getPoint2();
+
+		if (s1.equals(s2) || t1.equals(t2)) return false;
+
+		if (!GeometryPredicates.collinear(s1, s2, t1) || !GeometryPredicates.collinear(s1, s2, t2)) return false;
+
+		return strictlyBetween(t1, s) || strictlyBetween(t2, s) || strictlyBetween(s1, t) || strictlyBetween(s2, t);
+	}
+
+	private static boolean strictlyBetween(Point pt, Segment segment)
+	{
+		return !segment.has(pt) && GeometryPredicates.between(pt, segment.getPoint1(), segment.getPoint2());
+	}
+
+	// segment contains both endpoints of the piece (all points are on one line)
+	private static boolean covers(Segment segment, Segment piece)
+	{
+		return GeometryPredicates.between(piece.getPoint1(), segment.getPoint1(), segment.getPoint2()) &&
+			   GeometryPredicates.between(piece.getPoint2(), segment.getPoint1(), segment.getPoint2());
+	}
+
+	/*
+	 * The distinct endpoints of collinear segments, ordered along their line.
+	 */
+	private static List<Point> orderAlongLine(List<Segment> collinear)
+	{
+		Set<Point> distinct = new LinkedHashSet<Point>();
+		for (Segment segment : collinear) {
+			distinct.add(segment.getPoint1());
+			distinct.add(segment.getPoint2());
+		}
+
+		List<Point> points = new ArrayList<Point>(distinct);
+
+		Segment first = collinear.get(0);
+		Point origin = first.getPoint1();
+		double dx = first.getDeltaX();
+		double dy = first.getDeltaY();
+
+		points.sort(Comparator.comparingDouble(
+				(pt) -> (pt.getX() - origin.getX()) * dx + (pt.getY() - origin.getY()) * dy));
+
+		return points;
+	}
+
+	private static int find(int[] parent, int s)
+	{
+		while (parent[s] != s) {
+			parent[s] = parent[parent[s]];
+			s = parent[s];
+		}
+		return s;
+	}
+
+	private static void union(int[] parent, int s, int t)
+	{
+		parent[find(parent, s)] = find(parent, t);
+	}
+}
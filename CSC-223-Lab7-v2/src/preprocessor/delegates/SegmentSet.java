@@ -0,0 +1,229 @@
+package preprocessor.delegates;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import geometry_objects.Segment;
+
+/**
+ * A set of segments as a bit set over their ids (SegmentIds): bit k of
+ * _words[k / 64] is set when the segment with id k is in the set.
+ *
+ * Between sets over the same ids, union, difference and intersection
+ * (addAll, removeAll, retainAll) work a word (64 segments) at a time, with
+ * no hashing; with any other collection they work segment by segment.
+ */
+public class SegmentSet extends AbstractSet<Segment>
+{
+	protected final SegmentIds _ids;
+
+	protected long[] _words;
+	protected int _size;
+
+	public SegmentSet(SegmentIds ids)
+	{
+		_ids = ids;
+		_words = new long[Math.max(1, (ids.size() + 63) >>> 6)];
+	}
+
+	/**
+	 * A copy of a set (over the same ids).
+	 */
+	public SegmentSet(SegmentSet that)
+	{
+		_ids = that._ids;
+		_words = that._words.clone();
+		_size = that._size;
+	}
+
+	@Override
+	public int size() { return _size; }
+
+	@Override
+	public boolean contains(Object obj)
+	{
+		int id = _ids.find(obj);
+
+		return id != -1 && get(id);
+	}
+
+	@Override
+	public boolean add(Segment segment)
+	{
+		int id = _ids.id(segment);
+
+		if (get(id)) return false;
+
+		if ((id >>> 6) >= _words.length) _words = Arrays.copyOf(_words, Math.max(2 * _words.length, (id >>> 6) + 1));
+
+		_words[id >>> 6] |= 1L << id;
+		_size++;
+
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object obj)
+	{
+		int id = _ids.find(obj);
+
+		if (id == -1 || !get(id)) return false;
+
+		clear(id);
+
+		return true;
+	}
+
+	@Override
+	public void clear()
+	{
+		Arrays.fill(_words, 0);
+		_size = 0;
+	}
+
+	/**
+	 * Union: word by word with a set over the same ids.
+	 */
+	@Override
+	public boolean addAll(Collection<? extends Segment> c)
+	{
+		if (!sameIds(c)) return super.addAll(c);
+
+		long[] words = ((SegmentSet) c)._words;
+
+		if (words.length > _words.length) _words = Arrays.copyOf(_words, words.length);
+
+		for (int w = 0; w < words.length; w++) _words[w] |= words[w];
+
+		return recount();
+	}
+
+	/**
+	 * Difference: word by word with a set over the same ids.
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c)
+	{
+		if (!sameIds(c)) {
+			boolean changed = false;
+			for (Object obj : c) changed |= remove(obj);
+			return changed;
+		}
+
+		long[] words = ((SegmentSet) c)._words;
+
+		for (int w = 0; w < Math.min(words.length, _words.length); w++) _words[w] &= ~words[w];
+
+		return recount();
+	}
+
+	/**
+	 * Intersection: word by word with a set over the same ids.
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c)
+	{
+		if (!sameIds(c)) return super.retainAll(c);
+
+		long[] words = ((SegmentSet) c)._words;
+
+		for (int w = 0; w < _words.length; w++) _words[w] &= w < words.length ? words[w] : 0;
+
+		return recount();
+	}
+
+	/*
+	 * Move the members to their new ids (SegmentIds.compact): id k becomes renumbered[k].
+	 */
+	void renumber(int[] renumbered, int ids)
+	{
+		long[] words = new long[Math.max(1, (ids + 63) >>> 6)];
+
+		for (int id = nextId(0); id != -1; id = nextId(id + 1)) {
+			int to = renumbered[id];
+			words[to >>> 6] |= 1L << to;
+		}
+
+		_words = words;
+	}
+
+	private boolean sameIds(Collection<?> c)
+	{
+		return c instanceof SegmentSet && ((SegmentSet) c)._ids == _ids;
+	}
+
+	// recompute the size; true if it changed
+	private boolean recount()
+	{
+		int size = 0;
+		for (long word : _words) size += Long.bitCount(word);
+
+		boolean changed = size != _size;
+		_size = size;
+
+		return changed;
+	}
+
+	private boolean get(int id)
+	{
+		return (id >>> 6) < _words.length && (_words[id >>> 6] & (1L << id)) != 0;
+	}
+
+	private void clear(int id)
+	{
+		_words[id >>> 6] &= ~(1L << id);
+		_size--;
+	}
+
+	// the first id >= from in the set; -1 if there is none
+	private int nextId(int from)
+	{
+		int w = from >>> 6;
+		if (w >= _words.length) return -1;
+
+		long word = _words[w] & (-1L << from);
+
+		while (word == 0) {
+			if (++w == _words.length) return -1;
+			word = _words[w];
+		}
+
+		return (w << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	@Override
+	public Iterator<Segment> iterator()
+	{
+		return new Iterator<Segment>()
+		{
+			private int _next = nextId(0);
+			private int _last = -1;
+
+			@Override
+			public boolean hasNext() { return _next != -1; }
+
+			@Override
+			public Segment next()
+			{
+				if (_next == -1) throw new NoSuchElementException();
+
+				_last = _next;
+				_next = nextId(_next + 1);
+
+				return _ids.get(_last);
+			}
+
+			@Override
+			public void remove()
+			{
+				if (_last == -1) throw new IllegalStateException();
+
+				clear(_last);
+				_last = -1;
+			}
+		};
+	}
+}
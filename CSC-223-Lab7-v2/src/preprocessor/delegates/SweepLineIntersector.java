@@ -0,0 +1,447 @@
+package preprocessor.delegates;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import utilities.math.analytic_geometry.GeometryPredicates;
+
+/**
+ * Bentley-Ottmann sweep over a list of segments.
+ *
+ * A vertical sweep line moves left to right (lexicographically: x first, y second)
+ * across the endpoints and crossing points of the segments. The status structure
+ * holds the segments cut by the sweep line ordered bottom to top; only segments
+ * that become adjacent in the status are ever tested against each other, so the
+ * sweep runs in O((n + k) log n) where k is the number of crossings.
+ *
+ * The sweep only locates candidate pairs: every pair of segments that meet at a
+ * point interior to at least one of them. The caller is responsible for computing
+ * the actual intersection points (so the geometry is identical to a pairwise scan).
+ *
+ * Both orders are exact, as they must be for the sweep to be correct (an order
+ * decided within epsilon is not transitive). Events are compared by their exact
+ * coordinates: an endpoint's are doubles, a crossing's are rationals in the
+ * endpoints. The status is ordered by the side of a segment the event point is on
+ * (GeometryPredicates.orientation). Each comparison is made in floating point when
+ * its rounding error cannot change the answer, and exactly otherwise.
+ */
+public class SweepLineIntersector
+{
+	// Sentinel index used to probe the status structure at the current event point
+	private static final int PROBE = -1;
+
+	// Relative rounding error of a floating point operation (2^-53)
+	private static final double EPS = Math.ulp(1.0) / 2;
+
+	private final Point[] _left;
+	private final Point[] _right;
+
+	// Current event point
+	private Event _event;
+
+	// Event queue: event point -> indices of the segments whose left endpoint is that point
+	private TreeMap<Event, List<Integer>> _events;
+
+	// Segments currently cut by the sweep line; ordered bottom to top just after the event point
+	private TreeSet<Integer> _status;
+
+	// Pairs (encoded by ImplicitPointPreprocessor.pair) meeting at an event point; may repeat
+	private long[] _pairs;
+	private int _numPairs;
+
+	public SweepLineIntersector(List<Segment> segments)
+	{
+		int size = segments.size();
+
+		_left = new Point[size];
+		_right = new Point[size];
+
+		for (int i = 0; i < size; i++) {
+			Point p1 = segments.get(i).getPoint1();
+			Point p2 = segments.get(i).getPoint2();
+
+			// the 'left' endpoint is the lexicographically smaller one
+			boolean swap = compare(p1, p2) > 0;
+
+			_left[i] = swap ? p2 : p1;
+			_right[i] = swap ? p1 : p2;
+		}
+	}
+
+	/**
+	 * Run the sweep.
+	 *
+	 * @return the encoded (i, j), i < j, candidate pairs of segments; sorted
+	 *         ascending (i.e., row-major pair order) without duplicates
+	 */
+	public long[] run()
+	{
+		_events = new TreeMap<Event, List<Integer>>();
+		_status = new TreeSet<Integer>(statusOrder());
+		_pairs = new long[Math.max(16, _left.length)];
+		_numPairs = 0;
+
+		for (int i = 0; i < _left.length; i++) {
+			// degenerate (single point) segments cannot cross anything
+			if (compare(_left[i], _right[i]) == 0) continue;
+
+			eventAt(new Event(_left[i])).add(i);
+			eventAt(new Event(_right[i]));
+		}
+
+		while (!_events.isEmpty()) {
+			var event = _events.pollFirstEntry();
+
+			handleEvent(event.getKey(), event.getValue());
+		}
+
+		// sort and remove duplicate pairs
+		Arrays.sort(_pairs, 0, _numPairs);
+
+		int unique = 0;
+		for (int i = 0; i < _numPairs; i++) {
+			if (unique == 0 || _pairs[unique - 1] != _pairs[i]) _pairs[unique++] = _pairs[i];
+		}
+
+		return Arrays.copyOf(_pairs, unique);
+	}
+
+	/**
+	 * Process one event point p:
+	 *    * remove every segment which ends at or passes through p,
+	 *    * report every pair meeting at p with at least one segment passing
+	 *      through p in its interior (segments which merely share an endpoint
+	 *      cannot cross),
+	 *    * re-insert the passing segments (in their order just after p) along with
+	 *      the segments starting at p, then test the new neighbors for crossings.
+	 */
+	private void handleEvent(Event p, List<Integer> starting)
+	{
+		_event = p;
+
+		Integer below = _status.lower(PROBE);
+		Integer above = null;
+
+		List<Integer> passing = new ArrayList<Integer>();
+		List<Integer> ending = new ArrayList<Integer>();
+
+		Iterator<Integer> it = _status.tailSet(PROBE, true).iterator();
+		while (it.hasNext()) {
+			int s = it.next();
+
+			if (side(s) < 0) {
+				above = s;
+				break;
+			}
+
+			it.remove();
+
+			if (p.isAt(_right[s])) ending.add(s);
+			else passing.add(s);
+		}
+
+		for (int a = 0; a < passing.size(); a++) {
+			int s = passing.get(a);
+
+			for (int b = a + 1; b < passing.size(); b++) report(s, passing.get(b));
+			for (int t : ending) report(s, t);
+			for (int t : starting) report(s, t);
+		}
+
+		List<Integer> inserted = new ArrayList<Integer>(passing);
+		inserted.addAll(starting);
+
+		if (inserted.isEmpty()) {
+			checkCrossing(below, above);
+			return;
+		}
+
+		_status.addAll(inserted);
+		inserted.sort(statusOrder());
+
+		int lowest = inserted.get(0);
+		int highest = inserted.get(inserted.size() - 1);
+
+		checkCrossing(_status.lower(lowest), lowest);
+		checkCrossing(highest, _status.higher(highest));
+	}
+
+	private void report(int s, int t)
+	{
+		if (_numPairs == _pairs.length) _pairs = Arrays.copyOf(_pairs, 2 * _pairs.length);
+
+		_pairs[_numPairs++] = ImplicitPointPreprocessor.pair(s, t);
+	}
+
+	/**
+	 * If the two segments cross in the middle of both strictly after the current
+	 * event point, schedule that crossing as a future event. (Segments meeting at
+	 * an endpoint meet at an endpoint event, which is already scheduled.)
+	 */
+	private void checkCrossing(Integer s, Integer t)
+	{
+		if (s == null || t == null) return;
+
+		if (!GeometryPredicates.crossInMiddle(_left[s], _right[s], _left[t], _right[t])) return;
+
+		Event crossing = new Event(s, t, _left[s], _right[s], _left[t], _right[t]);
+
+		if (crossing.compareTo(_event) > 0) eventAt(crossing);
+	}
+
+	private List<Integer> eventAt(Event event)
+	{
+		return _events.computeIfAbsent(event, (key) -> new ArrayList<Integer>());
+	}
+
+	/*
+	 * @return the side of segment s the current event point is on: 1 if above (or, for
+	 *         a vertical segment, left of) the segment, 0 if on it, -1 if below
+	 */
+	private int side(int s)
+	{
+		// on the segment by construction (the exact test of a 0 is the slowest)
+		if (_event.isAt(_left[s]) || _event.isAt(_right[s]) || _event.isCrossingOf(s)) return 0;
+
+		return _event.orientation(_left[s], _right[s]);
+	}
+
+	/*
+	 * Bottom-to-top order of segments just after the current event point.
+	 *
+	 * Every comparison the status makes involves a segment through the event point
+	 * (one being inserted, or the probe):
+	 *    * a segment not through the event point is below or above all of those that are,
+	 *    * segments through the event point are ordered by direction (vertical segments last),
+	 *    * overlapping segments by index.
+	 *
+	 * The probe sorts immediately below every segment through (or above) the event point.
+	 */
+	private Comparator<Integer> statusOrder()
+	{
+		return (s, t) -> {
+			if (s.equals(t)) return 0;
+			if (s == PROBE) return side(t) > 0 ? 1 : -1;
+			if (t == PROBE) return side(s) > 0 ? -1 : 1;
+
+			int sideS = side(s);
+			int sideT = side(t);
+
+			// the event point is above (1) or below (-1) the segment not through it
+			if (sideS == 0 && sideT != 0) return sideT;
+			if (sideT == 0 && sideS != 0) return -sideS;
+
+			// both through the event point: which way they leave it
+			int byDirection = -GeometryPredicates.orientation(_left[s], _right[s], _right[t]);
+			if (byDirection != 0) return byDirection;
+
+			return Integer.compare(s, t);
+		};
+	}
+
+	/*
+	 * Exact lexicographic order of two points
+	 */
+	private static int compare(Point p, Point q)
+	{
+		if (p.getX() != q.getX()) return p.getX() < q.getX() ? -1 : 1;
+		if (p.getY() != q.getY()) return p.getY() < q.getY() ? -1 : 1;
+
+		return 0;
+	}
+
+	/*
+	 * An event point: an endpoint, or the crossing of two segments.
+	 *
+	 * A crossing is kept as its nearest doubles, with a bound on how far those are from
+	 * the exact point, and as homogeneous coordinates (X / W, Y / W) computed exactly
+	 * when a comparison is too close to call. Writing the segments as a + u r and
+	 * c + v q, the crossing is at u = ((c - a) x q) / (r x q).
+	 */
+	private static class Event implements Comparable<Event>
+	{
+		private final Point _point;
+
+		// the segments crossing here (-1 for an endpoint)
+		private final int _first;
+		private final int _second;
+
+		private final Point _a;
+		private final Point _b;
+		private final Point _c;
+		private final Point _d;
+
+		private final double _x;
+		private final double _y;
+		private final double _errorX;
+		private final double _errorY;
+
+		private BigDecimal[] _exact;
+
+		Event(Point point)
+		{
+			_point = point;
+			_first = _second = -1;
+			_a = _b = _c = _d = null;
+
+			_x = point.getX();
+			_y = point.getY();
+			_errorX = 0;
+			_errorY = 0;
+		}
+
+		// the crossing of segments s = ab and t = cd (known to cross in the middle of both)
+		Event(int s, int t, Point a, Point b, Point c, Point d)
+		{
+			_point = null;
+			_first = s;
+			_second = t;
+			_a = a;
+			_b = b;
+			_c = c;
+			_d = d;
+
+			double rx = b.getX() - a.getX();
+			double ry = b.getY() - a.getY();
+			double qx = d.getX() - c.getX();
+			double qy = d.getY() - c.getY();
+			double dx = c.getX() - a.getX();
+			double dy = c.getY() - a.getY();
+
+			double denominator = rx * qy - ry * qx;
+			double numerator = dx * qy - dy * qx;
+			double along = numerator / denominator;
+
+			_x = a.getX() + along * rx;
+			_y = a.getY() + along * ry;
+
+			// each of the products and differences is off by a few ulps
+			double denominatorError = 8 * EPS * (Math.abs(rx * qy) + Math.abs(ry * qx));
+			double numeratorError = 8 * EPS * (Math.abs(dx * qy) + Math.abs(dy * qx));
+
+			if (Math.abs(denominator) <= 2 * denominatorError) {
+				_errorX = Double.POSITIVE_INFINITY;
+				_errorY = Double.POSITIVE_INFINITY;
+			}
+			else {
+				double alongError = 2 * (numeratorError + Math.abs(along) * denominatorError) / Math.abs(denominator) +
+						            4 * EPS * Math.abs(along);
+
+				_errorX = Math.abs(rx) * alongError + 8 * EPS * (Math.abs(a.getX()) + Math.abs(along * rx));
+				_errorY = Math.abs(ry) * alongError + 8 * EPS * (Math.abs(a.getY()) + Math.abs(along * ry));
+			}
+		}
+
+		/*
+		 * @return true if this event is (exactly) at the point
+		 */
+		boolean isAt(Point pt)
+		{
+			return _point != null && compare(_point, pt) == 0;
+		}
+
+		/*
+		 * @return true if this event is the crossing of segment s (with another) it was made for;
+		 *         other segments through the same point are not recorded
+		 */
+		boolean isCrossingOf(int s)
+		{
+			return _first == s || _second == s;
+		}
+
+		@Override
+		public int compareTo(Event that)
+		{
+			if (_point != null && that._point != null) return compare(_point, that._point);
+
+			int byX = compareCoordinate(that, 0, _x, _errorX, that._x, that._errorX);
+			if (byX != 0) return byX;
+
+			return compareCoordinate(that, 1, _y, _errorY, that._y, that._errorY);
+		}
+
+		private int compareCoordinate(Event that, int axis, double mine, double myError, double theirs, double theirError)
+		{
+			if (Math.abs(mine - theirs) > 2 * (myError + theirError)) return mine < theirs ? -1 : 1;
+
+			BigDecimal[] p = exact();
+			BigDecimal[] q = that.exact();
+
+			// W > 0
+			return p[axis].multiply(q[2]).compareTo(q[axis].multiply(p[2]));
+		}
+
+		/*
+		 * @return the side of the line ab this event is on: the sign of (b - a) x (this - a)
+		 */
+		int orientation(Point a, Point b)
+		{
+			if (_point != null) return GeometryPredicates.orientation(a, b, _point);
+
+			double abX = b.getX() - a.getX();
+			double abY = b.getY() - a.getY();
+
+			double left = abX * (_y - a.getY());
+			double right = abY * (_x - a.getX());
+			double det = left - right;
+
+			double error = 8 * EPS * (Math.abs(left) + Math.abs(right)) +
+					       2 * (Math.abs(abX) * _errorY + Math.abs(abY) * _errorX);
+
+			if (Math.abs(det) > error) return (int) Math.signum(det);
+
+			BigDecimal[] p = exact();
+
+			BigDecimal exactLeft = diff(b.getX(), a.getX()).multiply(p[1].subtract(new BigDecimal(a.getY()).multiply(p[2])));
+			BigDecimal exactRight = diff(b.getY(), a.getY()).multiply(p[0].subtract(new BigDecimal(a.getX()).multiply(p[2])));
+
+			return exactLeft.compareTo(exactRight);
+		}
+
+		/*
+		 * @return { X, Y, W } with W > 0: this event is at (X / W, Y / W)
+		 */
+		private BigDecimal[] exact()
+		{
+			if (_exact != null) return _exact;
+
+			if (_point != null) {
+				_exact = new BigDecimal[] { new BigDecimal(_x), new BigDecimal(_y), BigDecimal.ONE };
+				return _exact;
+			}
+
+			BigDecimal rx = diff(_b.getX(), _a.getX());
+			BigDecimal ry = diff(_b.getY(), _a.getY());
+			BigDecimal qx = diff(_d.getX(), _c.getX());
+			BigDecimal qy = diff(_d.getY(), _c.getY());
+			BigDecimal dx = diff(_c.getX(), _a.getX());
+			BigDecimal dy = diff(_c.getY(), _a.getY());
+
+			BigDecimal w = rx.multiply(qy).subtract(ry.multiply(qx));
+			BigDecimal along = dx.multiply(qy).subtract(dy.multiply(qx));
+
+			if (w.signum() < 0) {
+				w = w.negate();
+				along = along.negate();
+			}
+
+			_exact = new BigDecimal[] { new BigDecimal(_a.getX()).multiply(w).add(rx.multiply(along)),
+					                    new BigDecimal(_a.getY()).multiply(w).add(ry.multiply(along)),
+					                    w };
+			return _exact;
+		}
+
+		private static BigDecimal diff(double x, double y)
+		{
+			return new BigDecimal(x).subtract(new BigDecimal(y));
+		}
+	}
+}
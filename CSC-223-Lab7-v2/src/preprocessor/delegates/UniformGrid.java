@@ -0,0 +1,163 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import geometry_objects.Segment;
+
+/**
+ * A uniform spatial hash over the bounding boxes of a list of segments.
+ *
+ * Each segment is bucketed into every grid cell its bounding box covers; only
+ * segments sharing a cell (and with overlapping bounding boxes) can intersect,
+ * so all other pairs are rejected without any intersection math.
+ *
+ * The cell size adapts to the figure: cells are sized so that, on average,
+ * each holds about one segment, but never smaller than half of the mean
+ * segment extent (otherwise long segments would be copied into many cells).
+ */
+public class UniformGrid
+{
+	private final double[] _minX;
+	private final double[] _minY;
+	private final double[] _maxX;
+	private final double[] _maxY;
+
+	private double _originX;
+	private double _originY;
+	private double _cellSize;
+
+	// cell (packed column, row) -> indices of the segments whose bounding box covers that cell
+	private Map<Long, List<Integer>> _cells;
+
+	public UniformGrid(List<Segment> segments)
+	{
+		int size = segments.size();
+
+		_minX = new double[size];
+		_minY = new double[size];
+		_maxX = new double[size];
+		_maxY = new double[size];
+
+		for (int i = 0; i < size; i++) {
+			Segment segment = segments.get(i);
+
+			double x1 = segment.getPoint1().getX();
+			double y1 = segment.getPoint1().getY();
+			double x2 = segment.getPoint2().getX();
+			double y2 = segment.getPoint2().getY();
+
+			_minX[i] = Math.min(x1, x2);
+			_minY[i] = Math.min(y1, y2);
+			_maxX[i] = Math.max(x1, x2);
+			_maxY[i] = Math.max(y1, y2);
+		}
+
+		_cellSize = computeCellSize();
+		_cells = new HashMap<Long, List<Integer>>();
+
+		for (int i = 0; i < size; i++) {
+			for (int col = column(_minX[i]); col <= column(_maxX[i]); col++) {
+				for (int row = row(_minY[i]); row <= row(_maxY[i]); row++) {
+					_cells.computeIfAbsent(cell(col, row), (key) -> new ArrayList<Integer>()).add(i);
+				}
+			}
+		}
+	}
+
+	public double getCellSize() { return _cellSize; }
+	public int numCells() { return _cells.size(); }
+
+	/**
+	 * Sizes the cells from the extent of the figure and the number of segments.
+	 */
+	private double computeCellSize()
+	{
+		int size = _minX.length;
+
+		if (size == 0) return 1;
+
+		_originX = Arrays.stream(_minX).min().getAsDouble();
+		_originY = Arrays.stream(_minY).min().getAsDouble();
+
+		double width = Arrays.stream(_maxX).max().getAsDouble() - _originX;
+		double height = Arrays.stream(_maxY).max().getAsDouble() - _originY;
+
+		double meanExtent = 0;
+		for (int i = 0; i < size; i++) {
+			meanExtent += Math.max(_maxX[i] - _minX[i], _maxY[i] - _minY[i]);
+		}
+		meanExtent /= size;
+
+		// about one segment per cell; a degenerate (flat) figure is cut along its length
+		double cellSize = width == 0 || height == 0 ? Math.max(width, height) / size
+				                                    : Math.sqrt(width * height / size);
+
+		cellSize = Math.max(cellSize, meanExtent / 2);
+
+		return cellSize > 0 ? cellSize : 1;
+	}
+
+	private int column(double x) { return (int) Math.floor((x - _originX) / _cellSize); }
+	private int row(double y) { return (int) Math.floor((y - _originY) / _cellSize); }
+
+	private static long cell(int column, int row) { return ((long) column << 32) | (row & 0xFFFFFFFFL); }
+
+	/**
+	 * @param statistics -- (out) counts for this run; may be null
+	 * @return the encoded (i, j), i < j, pairs of segments that share a cell and whose
+	 *         bounding boxes overlap; sorted ascending (row-major pair order)
+	 */
+	public long[] candidatePairs(BroadPhaseStatistics statistics)
+	{
+		long[] pairs = new long[Math.max(16, _minX.length)];
+		int numPairs = 0;
+		long sharingCell = 0;
+
+		for (Map.Entry<Long, List<Integer>> entry : _cells.entrySet()) {
+			List<Integer> bucket = entry.getValue();
+
+			for (int a = 0; a < bucket.size(); a++) {
+				for (int b = a + 1; b < bucket.size(); b++) {
+					int i = bucket.get(a);
+					int j = bucket.get(b);
+
+					sharingCell++;
+
+					if (!boxesOverlap(i, j)) continue;
+
+					// report a pair only from the cell holding the corner of the boxes' overlap
+					// (the pair shares every cell of that overlap)
+					long owner = cell(column(Math.max(_minX[i], _minX[j])), row(Math.max(_minY[i], _minY[j])));
+					if (owner != entry.getKey()) continue;
+
+					if (numPairs == pairs.length) pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+
+					pairs[numPairs++] = ImplicitPointPreprocessor.pair(i, j);
+				}
+			}
+		}
+
+		pairs = Arrays.copyOf(pairs, numPairs);
+		Arrays.sort(pairs);
+
+		if (statistics != null) {
+			statistics.setSegments(_minX.length);
+			statistics.setCells(_cells.size(), _cellSize);
+			statistics.setPairsSharingCell(sharingCell);
+			statistics.setCandidatePairs(numPairs);
+		}
+
+		return pairs;
+	}
+
+	// Segment.boundsOverlap on the columns: exact, as whether the segments meet is (see there)
+	private boolean boxesOverlap(int i, int j)
+	{
+		return _minX[i] <= _maxX[j] && _minX[j] <= _maxX[i] &&
+			   _minY[i] <= _maxY[j] && _minY[j] <= _maxY[i];
+	}
+}
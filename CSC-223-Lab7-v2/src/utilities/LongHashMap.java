@@ -0,0 +1,184 @@
+package utilities;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A hash map from primitive long keys to (non-null) values.
+ *
+ * Keys and values are kept in parallel arrays with open addressing and
+ * linear probing: no boxing of keys and no entry objects. Removal shifts
+ * later entries of a probe sequence back, so there are no tombstones.
+ *
+ * @param <V>
+ */
+public class LongHashMap<V> implements Iterable<V>
+{
+	protected long[] _keys;
+	protected Object[] _values; // null marks an empty slot
+	protected int _size;
+
+	public LongHashMap()
+	{
+		this(8);
+	}
+
+	/**
+	 * @param expected -- the number of entries expected
+	 */
+	public LongHashMap(int expected)
+	{
+		int capacity = tableSize(expected);
+
+		_keys = new long[capacity];
+		_values = new Object[capacity];
+	}
+
+	// smallest power of 2 keeping the table at most half full
+	private static int tableSize(int expected)
+	{
+		return Integer.highestOneBit(Math.max(2 * expected, 8) - 1) << 1;
+	}
+
+	private static int hash(long key)
+	{
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+
+		return (int) key;
+	}
+
+	public int size() { return _size; }
+	public boolean isEmpty() { return _size == 0; }
+
+	// the slot holding key, or the empty slot where it would go
+	private int slot(long key)
+	{
+		int mask = _keys.length - 1;
+		int slot = hash(key) & mask;
+
+		while (_values[slot] != null && _keys[slot] != key) slot = (slot + 1) & mask;
+
+		return slot;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(long key) { return (V) _values[slot(key)]; }
+
+	public boolean containsKey(long key) { return _values[slot(key)] != null; }
+
+	/**
+	 * @param value -- a non-null value
+	 * @return the previous value for key (null if there was none)
+	 */
+	public V put(long key, V value)
+	{
+		if (value == null) throw new IllegalArgumentException("null value");
+
+		int slot = slot(key);
+
+		@SuppressWarnings("unchecked")
+		V previous = (V) _values[slot];
+
+		_keys[slot] = key;
+		_values[slot] = value;
+
+		if (previous == null && ++_size * 2 > _keys.length) resize(_keys.length * 2);
+
+		return previous;
+	}
+
+	/**
+	 * @return the value removed for key (null if there was none)
+	 */
+	public V remove(long key)
+	{
+		int slot = slot(key);
+
+		@SuppressWarnings("unchecked")
+		V removed = (V) _values[slot];
+
+		if (removed == null) return null;
+
+		// shift back entries which probed past the removed slot
+		int mask = _keys.length - 1;
+		int hole = slot;
+
+		for (int next = (hole + 1) & mask; _values[next] != null; next = (next + 1) & mask) {
+			int home = hash(_keys[next]) & mask;
+
+			// move next into the hole unless its home lies cyclically in (hole, next]
+			boolean reachable = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+			if (!reachable) {
+				_keys[hole] = _keys[next];
+				_values[hole] = _values[next];
+				hole = next;
+			}
+		}
+
+		_values[hole] = null;
+		_size--;
+
+		return removed;
+	}
+
+	public void clear()
+	{
+		Arrays.fill(_values, null);
+		_size = 0;
+	}
+
+	private void resize(int capacity)
+	{
+		long[] keys = _keys;
+		Object[] values = _values;
+
+		_keys = new long[capacity];
+		_values = new Object[capacity];
+
+		for (int i = 0; i < keys.length; i++) {
+			if (values[i] != null) {
+				int slot = slot(keys[i]);
+
+				_keys[slot] = keys[i];
+				_values[slot] = values[i];
+			}
+		}
+	}
+
+	/**
+	 * Iterates the values (in no particular order).
+	 */
+	@Override
+	public Iterator<V> iterator()
+	{
+		return new Iterator<V>()
+		{
+			private int _next = advance(0);
+
+			private int advance(int slot)
+			{
+				while (slot < _values.length && _values[slot] == null) slot++;
+
+				return slot;
+			}
+
+			@Override
+			public boolean hasNext() { return _next < _values.length; }
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public V next()
+			{
+				if (!hasNext()) throw new NoSuchElementException();
+
+				V value = (V) _values[_next];
+				_next = advance(_next + 1);
+
+				return value;
+			}
+		};
+	}
+}
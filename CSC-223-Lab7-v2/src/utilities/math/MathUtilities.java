@@ -11,6 +11,9 @@ public class MathUtilities
     public static final double EPSILON_POWER = 6;
     public static final double EPSILON = Math.pow(10, -EPSILON_POWER); // 0.000001
 
+    // removeLessEpsilon keeps EPSILON_POWER - 1 decimal places
+    private static final double TRUNCATION_SCALE = Math.pow(10, EPSILON_POWER - 1);
+
     public static boolean doubleEquals(double a, double b)
     {
         return Math.abs(a - b) < EPSILON;
@@ -34,7 +37,13 @@ public class MathUtilities
      */
     public static double removeLessEpsilon(double x)
     {
-    	int value = (int)(x * Math.pow(10, EPSILON_POWER - 1));
-    	return value / Math.pow(10, EPSILON_POWER - 1);
+    	long value = (long)(x * TRUNCATION_SCALE);
+
+    	// x may already be on the grid, with x * TRUNCATION_SCALE landing just short of it
+    	// (2.49999 * 10^5 = 249998.99999...); truncating again must not move it
+    	long next = value + (long) Math.signum(x);
+    	if (next / TRUNCATION_SCALE == x) value = next;
+
+    	return value / TRUNCATION_SCALE;
     }
 }
\ No newline at end of file
@@ -0,0 +1,248 @@
+package utilities.math;
+
+import java.math.BigInteger;
+
+/**
+ * An exact rational number num / den, always reduced with den > 0.
+ *
+ * Values are kept in a pair of longs; an operation that overflows a long is
+ * redone with BigInteger (and the result moves back to longs if it fits).
+ * Since every value is reduced, equal numbers have equal representations:
+ * equals and hashCode are exact.
+ */
+public final class Rational implements Comparable<Rational>
+{
+    public static final Rational ZERO = new Rational(0, 1);
+    public static final Rational ONE = new Rational(1, 1);
+
+    private final long _num;
+    private final long _den;
+
+    // non-null only when the reduced value does not fit in longs
+    private final BigInteger _bigNum;
+    private final BigInteger _bigDen;
+
+    private Rational(long num, long den)
+    {
+        _num = num;
+        _den = den;
+        _bigNum = null;
+        _bigDen = null;
+    }
+
+    private Rational(BigInteger num, BigInteger den)
+    {
+        _num = 0;
+        _den = 0;
+        _bigNum = num;
+        _bigDen = den;
+    }
+
+    public static Rational of(long value) { return new Rational(value, 1); }
+
+    /**
+     * @param num -- numerator
+     * @param den -- denominator (non-zero)
+     * @return num / den reduced
+     */
+    public static Rational of(long num, long den)
+    {
+        if (den == 0) throw new ArithmeticException("zero denominator");
+
+        // -Long.MIN_VALUE does not fit in a long
+        if (num == Long.MIN_VALUE || den == Long.MIN_VALUE) {
+            return of(BigInteger.valueOf(num), BigInteger.valueOf(den));
+        }
+
+        if (den < 0) {
+            num = -num;
+            den = -den;
+        }
+
+        long gcd = gcd(Math.abs(num), den);
+
+        return new Rational(num / gcd, den / gcd);
+    }
+
+    /**
+     * @param num -- numerator
+     * @param den -- denominator (non-zero)
+     * @return num / den reduced; held in longs when it fits
+     */
+    public static Rational of(BigInteger num, BigInteger den)
+    {
+        if (den.signum() == 0) throw new ArithmeticException("zero denominator");
+
+        if (den.signum() < 0) {
+            num = num.negate();
+            den = den.negate();
+        }
+
+        BigInteger gcd = num.gcd(den);
+        if (!gcd.equals(BigInteger.ONE)) {
+            num = num.divide(gcd);
+            den = den.divide(gcd);
+        }
+
+        if (num.bitLength() < Long.SIZE && den.bitLength() < Long.SIZE) {
+            return new Rational(num.longValue(), den.longValue());
+        }
+
+        return new Rational(num, den);
+    }
+
+    /**
+     * @param x -- a double holding an integer
+     * @return x as a rational
+     */
+    public static Rational ofIntegral(double x)
+    {
+        if (!isIntegral(x)) throw new IllegalArgumentException(x + " is not an integer");
+
+        return of((long) x);
+    }
+
+    /**
+     * @return true if x is an integer that converts to a long exactly
+     */
+    public static boolean isIntegral(double x)
+    {
+        return x == Math.rint(x) && Math.abs(x) <= 1L << 53;
+    }
+
+    private static long gcd(long a, long b)
+    {
+        while (b != 0) {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+
+        return a == 0 ? 1 : a;
+    }
+
+    private boolean isBig() { return _bigNum != null; }
+
+    public BigInteger numerator() { return isBig() ? _bigNum : BigInteger.valueOf(_num); }
+    public BigInteger denominator() { return isBig() ? _bigDen : BigInteger.valueOf(_den); }
+
+    public Rational add(Rational that)
+    {
+        if (!isBig() && !that.isBig()) {
+            try {
+                return of(Math.addExact(Math.multiplyExact(_num, that._den), Math.multiplyExact(that._num, _den)),
+                          Math.multiplyExact(_den, that._den));
+            }
+            catch (ArithmeticException overflow) { /* redo below */ }
+        }
+
+        return of(numerator().multiply(that.denominator()).add(that.numerator().multiply(denominator())),
+                  denominator().multiply(that.denominator()));
+    }
+
+    public Rational negate()
+    {
+        if (!isBig() && _num != Long.MIN_VALUE) return new Rational(-_num, _den);
+
+        return of(numerator().negate(), denominator());
+    }
+
+    public Rational subtract(Rational that) { return add(that.negate()); }
+
+    public Rational multiply(Rational that)
+    {
+        if (!isBig() && !that.isBig()) {
+            try {
+                return of(Math.multiplyExact(_num, that._num), Math.multiplyExact(_den, that._den));
+            }
+            catch (ArithmeticException overflow) { /* redo below */ }
+        }
+
+        return of(numerator().multiply(that.numerator()), denominator().multiply(that.denominator()));
+    }
+
+    public Rational divide(Rational that)
+    {
+        if (that.signum() == 0) throw new ArithmeticException("division by zero");
+
+        if (!isBig() && !that.isBig()) {
+            try {
+                return of(Math.multiplyExact(_num, that._den), Math.multiplyExact(_den, that._num));
+            }
+            catch (ArithmeticException overflow) { /* redo below */ }
+        }
+
+        return of(numerator().multiply(that.denominator()), denominator().multiply(that.numerator()));
+    }
+
+    public int signum() { return isBig() ? _bigNum.signum() : Long.signum(_num); }
+
+    public boolean isInteger() { return isBig() ? _bigDen.equals(BigInteger.ONE) : _den == 1; }
+
+    /**
+     * @return the nearest double (correctly rounded, so a Point made from an exact
+     *         point is a function of the exact point alone)
+     */
+    public double doubleValue()
+    {
+        // both exact in doubles: one correctly rounded division
+        if (!isBig() && Math.abs(_num) <= 1L << 53 && _den <= 1L << 53) return (double) _num / _den;
+
+        // a quotient of at least 55 bits (53, a rounding bit and a sticky bit for the
+        // remainder) is rounded once by BigInteger.doubleValue
+        BigInteger num = numerator().abs();
+        BigInteger den = denominator();
+
+        int shift = 55 - (num.bitLength() - den.bitLength());
+
+        BigInteger[] quotient = shift >= 0 ? num.shiftLeft(shift).divideAndRemainder(den)
+                                           : num.divideAndRemainder(den.shiftLeft(-shift));
+
+        BigInteger bits = quotient[1].signum() == 0 ? quotient[0] : quotient[0].setBit(0);
+        double value = Math.scalb(bits.doubleValue(), -shift);
+
+        return signum() < 0 ? -value : value;
+    }
+
+    @Override
+    public int compareTo(Rational that)
+    {
+        if (!isBig() && !that.isBig()) {
+            try {
+                return Long.compare(Math.multiplyExact(_num, that._den), Math.multiplyExact(that._num, _den));
+            }
+            catch (ArithmeticException overflow) { /* redo below */ }
+        }
+
+        return numerator().multiply(that.denominator()).compareTo(that.numerator().multiply(denominator()));
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (!(obj instanceof Rational)) return false;
+
+        Rational that = (Rational) obj;
+
+        // reduced values that fit in longs are never held in BigIntegers
+        if (isBig() != that.isBig()) return false;
+
+        if (isBig()) return _bigNum.equals(that._bigNum) && _bigDen.equals(that._bigDen);
+
+        return _num == that._num && _den == that._den;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        if (isBig()) return 31 * _bigNum.hashCode() + _bigDen.hashCode();
+
+        return 31 * Long.hashCode(_num) + Long.hashCode(_den);
+    }
+
+    @Override
+    public String toString()
+    {
+        return isInteger() ? numerator().toString() : numerator() + "/" + denominator();
+    }
+}
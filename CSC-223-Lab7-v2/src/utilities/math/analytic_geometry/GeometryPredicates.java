@@ -0,0 +1,169 @@
+package utilities.math.analytic_geometry;
+
+import java.math.BigDecimal;
+
+import geometry_objects.points.Point;
+import utilities.math.MathUtilities;
+
+/**
+ * Orientation and betweenness predicates built on cross and dot products.
+ *
+ * Each predicate is the sign of a small polynomial in the coordinates. It is
+ * evaluated in floating point first; when the result is larger than the bound
+ * on its rounding error the sign is certain. So is the floating point result
+ * when every coordinate is a small integer (as on grid figures): it is then
+ * computed without rounding, a result of exactly 0 included. Otherwise (nearly
+ * degenerate input) the polynomial is evaluated exactly: every double is a
+ * BigDecimal.
+ *
+ * The exact predicates decide relationships among the points they are given.
+ * Points computed from intersections are truncated (see
+ * MathUtilities.removeLessEpsilon), so relationships involving those use the
+ * tolerant nearlyBetween and nearlyCollinear instead.
+ */
+public class GeometryPredicates
+{
+    // Relative error bound of a 2x2 determinant evaluated in doubles: (3 + 16 eps) eps, eps = 2^-53
+    private static final double ERROR_BOUND = (3.0 + 16.0 * Math.ulp(1.0) / 2) * Math.ulp(1.0) / 2;
+
+    // Truncating coordinates moves a point up to sqrt(2) 10^-(EPSILON_POWER - 1); a point computed
+    // from truncated points may be off by a few times that
+    public static final double TOLERANCE = 4 * Math.pow(10, 1 - MathUtilities.EPSILON_POWER);
+
+    // Integer coordinates below this in magnitude have differences below 2^26, products of
+    // differences below 2^52 and sums of two products below 2^53: all exact in doubles
+    private static final double SMALL_INTEGER = 0x1p25;
+
+    /**
+     * @return 1 if a, b, c turn counterclockwise, -1 if clockwise, 0 if the points are collinear
+     *         (the sign of the cross product (b - a) x (c - a))
+     */
+    public static int orientation(Point a, Point b, Point c)
+    {
+        double left = (b.getX() - a.getX()) * (c.getY() - a.getY());
+        double right = (b.getY() - a.getY()) * (c.getX() - a.getX());
+
+        double det = left - right;
+        if (Math.abs(det) > ERROR_BOUND * (Math.abs(left) + Math.abs(right))) return (int) Math.signum(det);
+        if (smallIntegers(a, b, c)) return (int) Math.signum(det);
+
+        BigDecimal exactLeft = diff(b.getX(), a.getX()).multiply(diff(c.getY(), a.getY()));
+        BigDecimal exactRight = diff(b.getY(), a.getY()).multiply(diff(c.getX(), a.getX()));
+
+        return exactLeft.compareTo(exactRight);
+    }
+
+    /**
+     * @return the sign of the dot product (b - a) . (c - a): 1 if the angle bac is acute,
+     *         0 if it is right, -1 if it is obtuse
+     */
+    public static int direction(Point a, Point b, Point c)
+    {
+        double first = (b.getX() - a.getX()) * (c.getX() - a.getX());
+        double second = (b.getY() - a.getY()) * (c.getY() - a.getY());
+
+        double dot = first + second;
+        if (Math.abs(dot) > ERROR_BOUND * (Math.abs(first) + Math.abs(second))) return (int) Math.signum(dot);
+        if (smallIntegers(a, b, c)) return (int) Math.signum(dot);
+
+        BigDecimal exactFirst = diff(b.getX(), a.getX()).multiply(diff(c.getX(), a.getX()));
+        BigDecimal exactSecond = diff(b.getY(), a.getY()).multiply(diff(c.getY(), a.getY()));
+
+        return exactFirst.add(exactSecond).signum();
+    }
+
+    /*
+     * @return true if every coordinate of the points is an integer of magnitude below SMALL_INTEGER
+     */
+    private static boolean smallIntegers(Point a, Point b, Point c)
+    {
+        return smallInteger(a.getX()) && smallInteger(a.getY()) &&
+               smallInteger(b.getX()) && smallInteger(b.getY()) &&
+               smallInteger(c.getX()) && smallInteger(c.getY());
+    }
+
+    private static boolean smallInteger(double x) { return Math.abs(x) < SMALL_INTEGER && x == Math.rint(x); }
+
+    private static BigDecimal diff(double x, double y)
+    {
+        return new BigDecimal(x).subtract(new BigDecimal(y));
+    }
+
+    /**
+     * @return true if the three points are (exactly) collinear
+     */
+    public static boolean collinear(Point a, Point b, Point c) { return orientation(a, b, c) == 0; }
+
+    /**
+     * @return true if m is (exactly) on the segment AB; endpoints included
+     */
+    public static boolean between(Point m, Point a, Point b)
+    {
+        return collinear(a, b, m) && direction(a, b, m) >= 0 && direction(b, a, m) >= 0;
+    }
+
+    /**
+     *      p1          q2
+     *         \      /
+     *           \  /
+     *            /\           The endpoints of each segment lie strictly on
+     *          /    \         opposite sides of the other segment
+     *      q1          p2
+     *
+     * @return true if the segments p1p2 and q1q2 cross at a single point in the middle of both
+     */
+    public static boolean crossInMiddle(Point p1, Point p2, Point q1, Point q2)
+    {
+        return orientation(p1, p2, q1) * orientation(p1, p2, q2) < 0 &&
+               orientation(q1, q2, p1) * orientation(q1, q2, p2) < 0;
+    }
+
+    /**
+     * @return true if c lies within TOLERANCE of the line through a and b
+     */
+    public static boolean nearlyCollinear(Point a, Point b, Point c)
+    {
+        double abX = b.getX() - a.getX();
+        double abY = b.getY() - a.getY();
+        double lengthSq = abX * abX + abY * abY;
+
+        // degenerate line: c must be near a
+        if (lengthSq == 0) return nearlyBetween(c, a, b);
+
+        // distance to the line: |AB x AC| / |AB|
+        double cross = abX * (c.getY() - a.getY()) - abY * (c.getX() - a.getX());
+        return cross * cross <= TOLERANCE * TOLERANCE * lengthSq;
+    }
+
+    /**
+     * @return true if m lies within TOLERANCE of the segment AB; endpoints included
+     */
+    public static boolean nearlyBetween(Point m, Point a, Point b) { return nearlyBetween(m, a, b, TOLERANCE); }
+
+    /**
+     * @return true if m lies within tolerance of the segment AB: its distance to the line
+     *         AB and how far its projection falls outside of AB are both within tolerance
+     */
+    public static boolean nearlyBetween(Point m, Point a, Point b, double tolerance)
+    {
+        double abX = b.getX() - a.getX();
+        double abY = b.getY() - a.getY();
+        double amX = m.getX() - a.getX();
+        double amY = m.getY() - a.getY();
+
+        double lengthSq = abX * abX + abY * abY;
+
+        // degenerate segment
+        if (lengthSq == 0) return amX * amX + amY * amY <= tolerance * tolerance;
+
+        // distance to the line: |AB x AM| / |AB|
+        double cross = abX * amY - abY * amX;
+        if (cross * cross > tolerance * tolerance * lengthSq) return false;
+
+        // projection onto the line: AB . AM / |AB| in [0, |AB|]
+        double dot = abX * amX + abY * amY;
+        double slack = tolerance * Math.sqrt(lengthSq);
+
+        return dot >= -slack && dot <= lengthSq + slack;
+    }
+}
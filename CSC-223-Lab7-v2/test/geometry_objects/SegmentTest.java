@@ -7,7 +7,11 @@ import java.util.SortedSet;
 
 import org.junit.Test;
 
+import geometry_objects.delegates.SegmentDelegate;
+import geometry_objects.delegates.intersections.LineIntersectionKernel;
+import geometry_objects.delegates.intersections.SegmentIntersectionDelegate;
 import geometry_objects.points.Point;
+import utilities.math.analytic_geometry.GeometryPredicates;
 
 public class SegmentTest {
     @Test
@@ -230,4 +234,150 @@ public class SegmentTest {
             assertTrue(pointsOnSegment.contains(expectedPoint));
         }
     }
+
+    @Test
+    public void collinearAndStandingOnTest() {
+        /**
+         *
+         *      E     F
+         *      |
+         *      A-----B-----C
+         *      |     |
+         *      G     H
+         *    (0,-1)
+         */
+
+        Point a = new Point(0, 0);
+        Point b = new Point(1, 0);
+        Point c = new Point(2, 0);
+        Point e = new Point(0, 1);
+        Point f = new Point(1, 1);
+        Point g = new Point(0, -1);
+        Point h = new Point(1, -1);
+
+        Segment ac = new Segment(a, c);
+        Segment bc = new Segment(b, c);
+        Segment ef = new Segment(e, f);
+        Segment bh = new Segment(b, h);
+        Segment eg = new Segment(e, g);
+
+        // collinear, not merely parallel
+        assertTrue(ac.isCollinearWith(bc));
+        assertFalse(ac.isCollinearWith(ef));
+
+        // B is in the middle of AC: BH stands on AC (in either order)
+        assertTrue(SegmentDelegate.standingOn(bh, ac));
+        assertTrue(SegmentDelegate.standingOn(ac, bh));
+
+        // A is in the middle of EG: AC stands on EG
+        assertTrue(SegmentDelegate.standingOn(eg, ac));
+
+        // EF and BH share no point
+        assertFalse(SegmentDelegate.standingOn(ef, bh));
+
+        // collinear segments do not stand on each other
+        assertFalse(SegmentDelegate.standingOn(bc, ac));
+    }
+
+    @Test
+    public void nearlyCollinearTest() {
+        // X is the truncated crossing (1, 1/3) on AB = (0,0)-(3,1)
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 3, 1);
+        Point x = new Point("X", 1, 1.0 / 3);
+
+        Segment ax = new Segment(a, x);
+        Segment xb = new Segment(x, b);
+
+        // the pieces are not exactly collinear, but within tolerance
+        assertFalse(ax.isCollinearWith(xb));
+        assertTrue(ax.isNearlyCollinearWith(xb));
+        assertFalse(ax.isNearlyCollinearWith(new Segment(x, new Point(3, 1.01))));
+
+        // small integer coordinates decide an exact 0 without the exact fallback
+        assertEquals(0, GeometryPredicates.orientation(new Point(0, 0), new Point(3, 1), new Point(9, 3)));
+        assertEquals(0, GeometryPredicates.direction(new Point(0, 0), new Point(3, 1), new Point(-1, 3)));
+        assertTrue(new Segment(new Point(-7, 2), new Point(5, 6)).isCollinearWith(new Segment(new Point(8, 7), new Point(2, 5))));
+    }
+
+    @Test
+    public void lineIntersectionKernelTest() {
+        double[] xy = new double[2];
+
+        // crossing: (0,0)-(4,4) and (0,4)-(4,0) meet at (2,2)
+        assertEquals(LineIntersectionKernel.POINT, LineIntersectionKernel.intersect(0, 0, 4, 4, 0, 4, 4, 0, xy));
+        assertEquals(2, xy[0], 0);
+        assertEquals(2, xy[1], 0);
+
+        // integer endpoints: the double nearest the exact point (1/3, 1/3)
+        assertEquals(LineIntersectionKernel.POINT, LineIntersectionKernel.intersect(0, 0, 1, 1, 0, 1, 1, -1, xy));
+        assertEquals(1.0 / 3, xy[0], 0);
+        assertEquals(1.0 / 3, xy[1], 0);
+
+        // shared endpoint
+        assertEquals(LineIntersectionKernel.VERTEX, LineIntersectionKernel.intersect(0, 0, 4, 4, 4, 4, 8, 0, xy));
+        assertEquals(4, xy[0], 0);
+
+        // parallel, and collinear with a shared endpoint
+        assertEquals(LineIntersectionKernel.PARALLEL, LineIntersectionKernel.intersect(0, 0, 4, 4, 0, 1, 4, 5, xy));
+        assertEquals(LineIntersectionKernel.PARALLEL, LineIntersectionKernel.intersect(0, 0, 4, 4, 4, 4, 6, 6, xy));
+
+        // vertical segments have infinite slope
+        assertEquals(Double.POSITIVE_INFINITY, new Segment(new Point(1, 0), new Point(1, 5)).slope(), 0);
+        assertEquals(1, new Segment(new Point(0, 0), new Point(2, 2)).slope(), 0);
+    }
+
+    @Test
+    public void cachedGeometryTest() {
+        Segment ab = new Segment(new Point(4, 1), new Point(1, 5));
+        Segment ba = new Segment(new Point(1, 5), new Point(4, 1));
+
+        assertEquals(5, ab.length(), 0);
+        assertEquals(25, ab.lengthSquared(), 0);
+        assertEquals(-4.0 / 3, ab.slope(), 1e-12);
+
+        assertEquals(1, ab.getMinX(), 0);
+        assertEquals(5, ab.getMaxY(), 0);
+
+        // the same line whichever way round the endpoints are given
+        assertEquals(ab.getLineA(), ba.getLineA(), 0);
+        assertEquals(ab.getLineB(), ba.getLineB(), 0);
+        assertEquals(ab.getLineC(), ba.getLineC(), 0);
+        assertEquals(ab.getLineC(), ab.getLineA() * 4 + ab.getLineB() * 1, 0);
+
+        // disjoint bounding boxes: no intersection, no point on the segment
+        Segment far = new Segment(new Point(6, 0), new Point(9, 9));
+        assertTrue(ab.boundsOverlap(ba));
+        assertFalse(ab.boundsOverlap(far));
+        assertNull(ab.segmentIntersection(far));
+        assertFalse(ab.pointLiesOnSegment(new Point(7, -3)));
+        assertTrue(ab.pointLiesOnSegment(new Point(2.5, 3)));
+    }
+
+    @Test
+    public void boundsOverlapAgreesWithMeetTest() {
+        /**
+         *            C                 E
+         *            |                 |
+         *            |                 |        E stops 0.00001 short of AB:
+         *      A-----+-----B           '        nearer than TOLERANCE, farther
+         *                                       than the truncation of a Point
+         */
+        Segment ab = new Segment(new Point(0, 0), new Point(4, 0));
+        Segment onAB = new Segment(new Point(2, 0), new Point(2, 3));
+        Segment nearAB = new Segment(new Point(3, 0.00001), new Point(3, 3));
+        double[] xy = new double[2];
+
+        // boxes touching along an edge overlap: C stands on AB
+        assertTrue(ab.boundsOverlap(onAB));
+        assertEquals(SegmentIntersectionDelegate.SPLITS_FIRST, SegmentIntersectionDelegate.meet(ab, onAB, xy));
+        assertEquals(2, xy[0], 0);
+        assertEquals(0, xy[1], 0);
+
+        // the boxes are disjoint, and E is not on AB either (the predicates are exact)
+        assertTrue(0.00001 < GeometryPredicates.TOLERANCE);
+        assertFalse(ab.boundsOverlap(nearAB));
+        assertFalse(GeometryPredicates.between(nearAB.getPoint1(), ab.getPoint1(), ab.getPoint2()));
+        assertEquals(SegmentIntersectionDelegate.NONE, SegmentIntersectionDelegate.meet(ab, nearAB, xy));
+    }
 }
@@ -0,0 +1,76 @@
+package geometry_objects.delegates.intersections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+/**
+ * Timing harness (not a unit test): intersects consecutive pairs of random
+ * crossing segments, per call allocating a buffer and with a reused one:
+ *
+ *     LineIntersectionDelegate.intersection(s, t) / intersection(s, t, xy) / intersect(s, t, xy)
+ *     SegmentIntersectionDelegate.crossingPoint(s, t) / crossingPoint(s, t, xy)
+ *
+ *     java geometry_objects.delegates.intersections.IntersectionBenchmark [pairs] [rounds]
+ */
+public class IntersectionBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        // pairs of segments crossing near the middle of both
+        Random random = new Random(223);
+        List<Segment> segments = new ArrayList<>();
+        for (int k = 0; k < n; k++) {
+            double x = 100 * random.nextDouble();
+            double y = 100 * random.nextDouble();
+            double angle = Math.PI * random.nextDouble();
+            double dx = Math.cos(angle);
+            double dy = Math.sin(angle);
+
+            segments.add(new Segment(new Point(x - dx, y - dy), new Point(x + dx, y + dy)));
+            segments.add(new Segment(new Point(x + dy, y - dx), new Point(x - dy, y + dx)));
+        }
+
+        String[] names = { "intersection(s, t)", "intersection(s, t, xy)", "intersect(s, t, xy)",
+                           "crossingPoint(s, t)", "crossingPoint(s, t, xy)" };
+        long[] best = new long[names.length];
+        Arrays.fill(best, Long.MAX_VALUE);
+        double sum = 0;
+
+        double[] xy = new double[2];
+
+        for (int round = 0; round < rounds; round++) {
+            for (int m = 0; m < names.length; m++) {
+                long start = System.nanoTime();
+
+                for (int k = 0; k < segments.size(); k += 2) {
+                    Segment s = segments.get(k);
+                    Segment t = segments.get(k + 1);
+                    Point p = null;
+
+                    switch (m) {
+                        case 0: p = LineIntersectionDelegate.intersection(s, t); break;
+                        case 1: p = LineIntersectionDelegate.intersection(s, t, xy); break;
+                        case 2: if (LineIntersectionDelegate.intersect(s, t, xy) == LineIntersectionKernel.POINT) sum += xy[0]; break;
+                        case 3: p = SegmentIntersectionDelegate.crossingPoint(s, t); break;
+                        case 4: p = SegmentIntersectionDelegate.crossingPoint(s, t, xy); break;
+                    }
+
+                    if (p != null) sum += p.getX();
+                }
+
+                best[m] = Math.min(best[m], System.nanoTime() - start);
+            }
+        }
+
+        System.out.printf("%d pairs (checksum %.1f)%n", n, sum);
+        for (int m = 0; m < names.length; m++) {
+            System.out.printf("%-25s %8.2f ms  %6.1f ns/pair%n", names[m], best[m] / 1e6, (double) best[m] / n);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package geometry_objects.points;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ColumnarPointDatabaseTest {
+    @Test
+    public void sameAsPointDatabaseTest() {
+        List<Point> points = new ArrayList<>();
+
+        points.add(new Point("A", 0, 0));
+        points.add(new Point(4, 0));
+        points.add(new Point("C", 4, 4));
+        points.add(new Point(0, 4));
+        points.add(new Point(2.4999912, 2.5));
+
+        PointDatabase expected = new PointDatabase(points);
+        ColumnarPointDatabase actual = new ColumnarPointDatabase(points);
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getPoints().toString(), actual.getPoints().toString());
+
+        for (Point pt : expected.getPoints()) {
+            assertEquals(pt.getName(), actual.getName(pt));
+            assertTrue(actual.getPoints().contains(pt));
+        }
+
+        // generated names continue the same sequence
+        expected.put(new Point(9, 9));
+        actual.put(new Point(9, 9));
+        assertEquals("*_D", actual.getName(new Point(9, 9)));
+        assertEquals(expected.getName(new Point(9, 9)), actual.getName(new Point(9, 9)));
+    }
+
+    @Test
+    public void putRenameRemoveTest() {
+        ColumnarPointDatabase db = new ColumnarPointDatabase(1);
+
+        int a = db.putId("A", 1, 2);
+        int b = db.putId(Point.ANONYMOUS, 3, 4);
+        db.put(new Point(5, 6));
+
+        assertEquals(3, db.size());
+        assertEquals(a, db.putId("Z", 1, 2));
+        assertEquals("A", db.getName(a));
+        assertEquals(Point.ANONYMOUS, db.getName(3, 4));
+        assertEquals(Point.ANONYMOUS, db.getName(new Point(3, 4)));
+        assertEquals(Point.ANONYMOUS, db.getName(b));
+        assertNull(db.getName(7, 8));
+
+        // a valid name replaces a generated one
+        int c = db.getId(5, 6);
+        assertEquals("*_A", db.getName(c));
+        db.put("C", 5, 6);
+        assertEquals("C", db.getName(c));
+        assertEquals(new Point(5, 6), db.getPoint("C"));
+        assertNull(db.getPoint("*_A"));
+
+        // ids are stable across removal
+        assertEquals(new Point(1, 2), db.remove(new Point(1, 2)));
+        assertNull(db.remove(new Point(1, 2)));
+        assertEquals(2, db.size());
+        assertEquals(-1, db.getId(1, 2));
+        assertEquals(c, db.getId(5, 6));
+        assertFalse(db.contains(a));
+        assertNull(db.getPoint("A"));
+
+        db.put("A", 1, 2);
+        assertEquals(3, db.getId(1, 2));
+        assertEquals(3, db.getId("A"));
+        assertEquals(1.0, db.getX(3), 0);
+        assertEquals(2.0, db.getY(3), 0);
+    }
+
+    @Test
+    public void growTest() {
+        ColumnarPointDatabase db = new ColumnarPointDatabase(1);
+
+        for (int i = 0; i < 10000; i++) db.put("P" + i, i % 100, i / 100);
+        for (int i = 0; i < 10000; i += 2) db.remove(new Point(i % 100, i / 100));
+
+        assertEquals(5000, db.size());
+
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i % 2 == 0 ? -1 : i, db.getId(i % 100, i / 100));
+        }
+    }
+}
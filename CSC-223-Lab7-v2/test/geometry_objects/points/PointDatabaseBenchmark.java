@@ -0,0 +1,91 @@
+package geometry_objects.points;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Timing and memory harness (not a unit test) for 1M points, in the object
+ * database (PointDatabase over PointNamingFactory) and in ColumnarPointDatabase:
+ *
+ *     load    -- put every point from its coordinates (1 in 100 is unnamed and given a
+ *                generated name; generated names grow by a letter every 26, so they are kept few)
+ *     lookup  -- getPoint(x, y) and getName(Point) for every point
+ *     by name -- getPoint(name) for every named point
+ *     memory  -- heap held by the loaded database (after a full collection)
+ *
+ *     java geometry_objects.points.PointDatabaseBenchmark [points] [rounds]
+ */
+public class PointDatabaseBenchmark {
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Random random = new Random(223);
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        String[] names = new String[n];
+        Point[] points = new Point[n];
+        for (int k = 0; k < n; k++) {
+            xs[k] = 10000 * random.nextDouble();
+            ys[k] = 10000 * random.nextDouble();
+            names[k] = k % 100 != 0 ? "P" + k : Point.ANONYMOUS;
+            points[k] = new Point(xs[k], ys[k]);
+        }
+
+        run("PointDatabase", () -> new PointDatabase(), xs, ys, names, points, rounds);
+        run("ColumnarPointDatabase", () -> new ColumnarPointDatabase(n), xs, ys, names, points, rounds);
+    }
+
+    private static void run(String name, Supplier<PointDatabase> empty, double[] xs, double[] ys, String[] names,
+                            Point[] points, int rounds) throws Exception {
+        long load = Long.MAX_VALUE;
+        long lookup = Long.MAX_VALUE;
+        long byName = Long.MAX_VALUE;
+        long found = 0;
+
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            PointDatabase database = load(empty, xs, ys, names);
+            load = Math.min(load, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int k = 0; k < xs.length; k++) {
+                if (database.getPoint(xs[k], ys[k]) != null) found++;
+                if (database.getName(points[k]) != null) found++;
+            }
+            lookup = Math.min(lookup, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int k = 0; k < xs.length; k++) {
+                if (names[k] != Point.ANONYMOUS && database.getPoint(names[k]) != null) found++;
+            }
+            byName = Math.min(byName, System.nanoTime() - start);
+        }
+
+        long before = used();
+        PointDatabase database = load(empty, xs, ys, names);
+        long held = used() - before;
+
+        System.out.printf("%-22s load %7.1f ms  lookup %7.1f ms  by name %7.1f ms  memory %6.1f MB  (%d points, %d found)%n",
+                          name, load / 1e6, lookup / 1e6, byName / 1e6, held / 1e6, database.size(), found);
+    }
+
+    private static PointDatabase load(Supplier<PointDatabase> empty, double[] xs, double[] ys, String[] names) {
+        PointDatabase database = empty.get();
+
+        for (int k = 0; k < xs.length; k++) {
+            if (names[k] == Point.ANONYMOUS) database.put(new Point(xs[k], ys[k]));
+            else database.put(names[k], xs[k], ys[k]);
+        }
+
+        return database;
+    }
+
+    private static long used() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int k = 0; k < 3; k++) System.gc();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -59,7 +59,7 @@ public class PointNamingFactoryTest {
         assertFalse(pnf.get(pt1).isGenerated());
 
         assertTrue(pnf.get(pt2).isGenerated());
-        assertEquals(pnf.get(pt2)._name, "*_A");
+        assertEquals(pnf.get(pt2).getName(), "*_A");
     }
 
     @Test
@@ -146,6 +146,63 @@ public class PointNamingFactoryTest {
         }
     }
 
+    @Test
+    public void hashConsistentWithEqualsTest() {
+        PointNamingFactory pnf = new PointNamingFactory();
+
+        // equal within EPSILON: the same point for lookups
+        Point pt0 = new Point("near", 2.4999912, -1.0000004);
+        Point pt1 = new Point(2.4999901, -1.0000001);
+        Point pt2 = new Point(2.49999, -1);
+
+        assertEquals(pt0, pt1);
+        assertEquals(pt0, pt2);
+        assertEquals(pt0.hashCode(), pt1.hashCode());
+        assertEquals(pt0.hashCode(), pt2.hashCode());
+
+        pnf.put(pt0);
+
+        assertSame(pnf.get(pt0), pnf.get(pt1));
+        assertSame(pnf.get(pt0), pnf.get(pt2));
+        assertTrue(pnf.contains(2.49999, -1));
+        assertFalse(pnf.contains(2.49998, -1));
+
+        // re-creating a point from its coordinates gives the same point
+        Point copy = new Point(pnf.get(pt0).getX(), pnf.get(pt0).getY());
+        assertEquals(pnf.get(pt0).getX(), copy.getX(), 0);
+        assertEquals("near", pnf.get(copy).getName());
+    }
+
+    @Test
+    public void getNameTest() {
+        PointNamingFactory pnf = new PointNamingFactory();
+
+        pnf.put(new Point("A", 0, 0));
+        pnf.put(new Point(1, 1));
+        pnf.put(new Point("A", 2, 2));
+
+        assertEquals(new Point(0, 0), pnf.get("A"));
+        assertEquals(new Point(1, 1), pnf.get("*_A"));
+        assertNull(pnf.get("B"));
+
+        // rename on put: the generated name is gone
+        pnf.put("B", 1, 1);
+        assertNull(pnf.get("*_A"));
+        assertEquals(new Point(1, 1), pnf.get("B"));
+
+        // another point with the name takes over when the first is removed
+        pnf.remove(new Point(0, 0));
+        assertEquals(new Point(2, 2), pnf.get("A"));
+
+        pnf.remove(new Point(2, 2));
+        assertNull(pnf.get("A"));
+        assertFalse(pnf._names.containsKey("A"));
+
+        pnf.clear();
+        assertNull(pnf.get("A"));
+        assertNull(pnf.get("B"));
+    }
+
     @Test
     public void containsXYTest() {
         PointNamingFactory pnf = new PointNamingFactory();
@@ -236,7 +293,7 @@ public class PointNamingFactoryTest {
             pnf.put(pt);
 
             assertTrue(pnf.get(pt).isGenerated());
-            assertEquals(pnf.get(pt)._name, "*_" + String.valueOf(ALPHABET.charAt(i % len)).repeat((i / len) + 1));
+            assertEquals(pnf.get(pt).getName(), "*_" + String.valueOf(ALPHABET.charAt(i % len)).repeat((i / len) + 1));
         }
     }
 }
@@ -6,18 +6,24 @@ import org.junit.Test;
 import components.FigureNode;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
 import geometry_objects.Segment;
 import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
 import input.InputFacade;
 import preprocessor.delegates.ImplicitPointPreprocessor;
+import preprocessor.delegates.IntersectionProvenance;
+import preprocessor.delegates.SegmentDatabase;
 
 public class PreprocessorTest
 {
@@ -163,7 +169,49 @@ public class PreprocessorTest
 
 	@Test
 	public void computeImplicitBaseSegmentsTest() {
-		fail();
+		/**
+		 * 		C-------B
+		 * 		| \   / |
+		 * 		|   *   |
+		 * 		| /   \ |
+		 * 		A-------D
+		 * 	  (0,0)
+		 */
+		Point a = new Point("A", 0, 0);
+		Point b = new Point("B", 2, 2);
+		Point c = new Point("C", 0, 2);
+		Point d = new Point("D", 2, 0);
+		Point star = new Point(1, 1);
+
+		Set<Segment> segments = new HashSet<>();
+		segments.add(new Segment(a, b));
+		segments.add(new Segment(c, d));
+		segments.add(new Segment(a, c));
+		segments.add(new Segment(c, b));
+		segments.add(new Segment(b, d));
+		segments.add(new Segment(d, a));
+
+		PointDatabase points = new PointDatabase(List.of(a, b, c, d));
+		Preprocessor pp = new Preprocessor(points, segments);
+
+		IntersectionProvenance provenance = new IntersectionProvenance();
+		Set<Point> iPoints = ImplicitPointPreprocessor.compute(points, new ArrayList<>(segments), provenance);
+
+		// the crossing splits exactly the two diagonals
+		assertEquals(2, provenance.asMap().size());
+		assertEquals(Set.of(star), provenance.getSplits(new Segment(a, b)));
+		assertEquals(Set.of(star), provenance.getSplits(new Segment(c, d)));
+		assertTrue(provenance.getSplits(new Segment(a, c)).isEmpty());
+
+		Set<Segment> expected = new HashSet<>();
+		expected.add(new Segment(a, star));
+		expected.add(new Segment(star, b));
+		expected.add(new Segment(c, star));
+		expected.add(new Segment(star, d));
+
+		// the provenance and the scan over all implicit points agree
+		assertEquals(expected, pp.computeImplicitBaseSegments(provenance));
+		assertEquals(expected, pp.computeImplicitBaseSegments(iPoints));
 	}
 
 	@Test
@@ -217,12 +265,75 @@ public class PreprocessorTest
 
 	@Test
 	public void identifyAllMinimalSegmentsTest() {
-		fail();
+		/**
+		 * 		C-------B
+		 * 		  \   /
+		 * 		    *
+		 * 		  /   \
+		 * 		A       D
+		 * 	  (0,0)
+		 */
+		Point a = new Point("A", 0, 0);
+		Point b = new Point("B", 2, 2);
+		Point c = new Point("C", 0, 2);
+		Point d = new Point("D", 2, 0);
+		Point star = new Point(1, 1);
+
+		Set<Segment> segments = new HashSet<>();
+		segments.add(new Segment(a, b));
+		segments.add(new Segment(c, d));
+		segments.add(new Segment(c, b));
+
+		PointDatabase points = new PointDatabase(List.of(a, b, c, d));
+		Preprocessor pp = new Preprocessor(points, segments);
+
+		IntersectionProvenance provenance = new IntersectionProvenance();
+		Set<Point> iPoints = ImplicitPointPreprocessor.compute(points, new ArrayList<>(segments), provenance);
+		Set<Segment> iSegments = pp.computeImplicitBaseSegments(provenance);
+
+		Set<Segment> expected = new HashSet<>(iSegments);
+		expected.add(new Segment(c, b));
+
+		assertEquals(5, expected.size());
+		assertEquals(expected, pp.identifyAllMinimalSegments(provenance, segments, iSegments));
+		assertEquals(expected, pp.identifyAllMinimalSegments(iPoints, segments, iSegments));
 	}
 
 	@Test
 	public void constructAllNonMinimalSegmentsTest() {
-		fail();
+		/**
+		 *            E       F
+		 *            |     /
+		 *            |   /
+		 *      A-----B-----C-----D
+		 *    (0,0)
+		 */
+		Point a = new Point("A", 0, 0);
+		Point b = new Point("B", 1, 0);
+		Point c = new Point("C", 2, 0);
+		Point d = new Point("D", 3, 0);
+		Point e = new Point("E", 1, 2);
+		Point f = new Point("F", 3, 2);
+
+		Set<Segment> minimal = new HashSet<>();
+		minimal.add(new Segment(a, b));
+		minimal.add(new Segment(b, c));
+		minimal.add(new Segment(c, d));
+		minimal.add(new Segment(b, e));
+		minimal.add(new Segment(f, c));
+
+		Preprocessor pp = new Preprocessor(new PointDatabase(), new HashSet<>());
+
+		Set<Segment> nonMinimal = pp.constructAllNonMinimalSegments(minimal);
+
+		// only the horizontal line has more than one minimal segment
+		assertEquals(3, nonMinimal.size());
+		assertTrue(nonMinimal.contains(new Segment(a, c)));
+		assertTrue(nonMinimal.contains(new Segment(b, d)));
+		assertTrue(nonMinimal.contains(new Segment(a, d)));
+
+		assertTrue(pp.constructAllNonMinimalSegments(new HashSet<>()).isEmpty());
+		assertNull(pp.constructAllNonMinimalSegments(null));
 	}
 
 	@Test
@@ -245,5 +356,590 @@ public class PreprocessorTest
 		assertEquals(ad, Preprocessor.combineToNewSegment(ab, bd));
 		assertEquals(ad, Preprocessor.combineToNewSegment(ac, cd));
 		assertEquals(bc, Preprocessor.combineToNewSegment(bc, bc));
+
+		// pieces of (0,0)-(3,1) through its truncated point (1, 1/3)
+		Point e = new Point("E", 3, 1);
+		Point x = new Point("X", 1, 1.0 / 3);
+
+		assertEquals(new Segment(a, e), Preprocessor.combineToNewSegment(new Segment(a, x), new Segment(x, e)));
+		assertNull(Preprocessor.combineToNewSegment(new Segment(a, x), new Segment(x, d)));
+	}
+
+	@Test
+	public void addRemoveSegmentTest() {
+		/**
+		 *      C           B
+		 *        \       /
+		 *          \   /
+		 *      E-----*-----F
+		 *          /   \
+		 *        /       \
+		 *      A           D
+		 */
+		Point a = new Point("A", 0, 0);
+		Point b = new Point("B", 4, 4);
+		Point c = new Point("C", 0, 4);
+		Point d = new Point("D", 4, 0);
+		Point e = new Point("E", 0, 2);
+		Point f = new Point("F", 4, 2);
+
+		Segment ab = new Segment(a, b);
+		Segment cd = new Segment(c, d);
+		Segment ef = new Segment(e, f);
+
+		PointDatabase points = new PointDatabase(List.of(a, b, c, d, e, f));
+		Preprocessor pp = new Preprocessor(points, new HashSet<>(List.of(ab)));
+
+		assertEquals(1, pp.getAllSegments().size());
+
+		// X: one implicit point, 4 minimal + 2 given (non-minimal) segments
+		assertTrue(pp.addSegment(cd));
+		assertFalse(pp.addSegment(cd));
+		assertEquals(7, points.size());
+		assertEquals(6, pp.getAllSegments().size());
+		assertTrue(pp.isConsistentWithAnalyze());
+
+		// a third segment through the same point
+		assertTrue(pp.addSegment(ef));
+		assertEquals(7, points.size());
+		assertEquals(9, pp.getAllSegments().size());
+		assertTrue(pp.isConsistentWithAnalyze());
+
+		// the point remains while two segments cross there
+		assertTrue(pp.removeSegment(ab));
+		assertFalse(pp.removeSegment(ab));
+		assertEquals(7, points.size());
+		assertEquals(6, pp.getAllSegments().size());
+		assertTrue(pp.isConsistentWithAnalyze());
+
+		// ... and is retired with the last crossing
+		assertTrue(pp.removeSegment(cd));
+		assertEquals(6, points.size());
+		assertEquals(1, pp.getAllSegments().size());
+		assertTrue(pp.getAllSegments().containsKey(ef));
+		assertTrue(pp.isConsistentWithAnalyze());
+	}
+
+	@Test
+	public void tJunctionTest() {
+		/**
+		 *                  D
+		 *                 /
+		 *               B          AB ends on CD: B lies in the middle of CD
+		 *             / /          (only up to rounding: 1.1 is not a double)
+		 *           /  C
+		 *         A
+		 */
+		Point a = new Point("A", 101, 0.875);
+		Point b = new Point("B", 102.5, 2.125);
+		Point c = new Point("C", 102, 1.5);
+		Point d = new Point("D", 103.1, 2.875);
+
+		Segment ab = new Segment(a, b);
+		Segment cd = new Segment(c, d);
+
+		for (boolean lazy : new boolean[] { false, true }) {
+			PointDatabase points = new PointDatabase(List.of(a, b, c, d));
+			Preprocessor pp = new Preprocessor(points, new HashSet<>(List.of(ab, cd)), lazy);
+
+			// no (ghost) point next to B; CD is split at B itself
+			assertTrue(pp.getImplicitPoints().isEmpty());
+			assertEquals(4, points.size());
+
+			Set<Segment> minimal = pp.getMinimalSegments();
+			assertEquals(3, minimal.size());
+			assertTrue(minimal.contains(ab));
+			assertTrue(minimal.contains(new Segment(c, b)));
+			assertTrue(minimal.contains(new Segment(b, d)));
+
+			assertEquals(1, pp.getNonMinimalSegments().size());
+			assertTrue(pp.getNonMinimalSegments().contains(cd));
+			assertEquals(4, pp.getAllSegments().size());
+		}
+
+		// the same by edits: CD is split when AB is added and rejoined when it is removed
+		PointDatabase points = new PointDatabase(List.of(a, b, c, d));
+		Preprocessor pp = new Preprocessor(points, new HashSet<>(List.of(cd)));
+
+		assertTrue(pp.addSegment(ab));
+		assertEquals(3, pp.getMinimalSegments().size());
+		assertTrue(pp.isConsistentWithAnalyze());
+
+		assertTrue(pp.removeSegment(ab));
+		assertEquals(1, pp.getMinimalSegments().size());
+		assertTrue(pp.getMinimalSegments().contains(cd));
+		assertEquals(4, points.size());
+		assertTrue(pp.isConsistentWithAnalyze());
+	}
+
+	@Test
+	public void overlappingSegmentsTest() {
+		/**
+		 *      A-----C=====B-----D       AB and CD overlap on CB:
+		 *                                AB is split at C and CD at B
+		 */
+		Point a = new Point("A", 1, 0);
+		Point b = new Point("B", 1, 2);
+		Point c = new Point("C", 1, 1);
+		Point d = new Point("D", 1, 3);
+
+		Segment ab = new Segment(a, b);
+		Segment cd = new Segment(c, d);
+
+		for (boolean lazy : new boolean[] { false, true }) {
+			PointDatabase points = new PointDatabase(List.of(a, b, c, d));
+			Preprocessor pp = new Preprocessor(points, new HashSet<>(List.of(ab, cd)), lazy);
+
+			assertTrue(pp.getImplicitPoints().isEmpty());
+
+			Set<Segment> minimal = pp.getMinimalSegments();
+			assertEquals(3, minimal.size());
+			assertTrue(minimal.contains(new Segment(a, c)));
+			assertTrue(minimal.contains(new Segment(c, b)));
+			assertTrue(minimal.contains(new Segment(b, d)));
+
+			Set<Segment> nonMinimal = pp.getNonMinimalSegments();
+			assertEquals(3, nonMinimal.size());
+			assertTrue(nonMinimal.contains(ab));
+			assertTrue(nonMinimal.contains(cd));
+			assertTrue(nonMinimal.contains(new Segment(d, a)));
+			assertEquals(6, pp.getAllSegments().size());
+		}
+	}
+
+	@Test
+	public void overlappingEditsRandomTest() {
+		// segments along a few directions on a small grid: many overlap (or share pieces)
+		int[][] directions = { { 1, 0 }, { 0, 1 }, { 1, 1 }, { 1, -1 }, { 2, 1 } };
+		Random random = new Random(223);
+
+		for (int run = 0; run < 30; run++) {
+			Map<String, Point> named = new HashMap<>();
+			List<Segment> candidates = new ArrayList<>();
+
+			for (int s = 0; s < 14; s++) {
+				int[] direction = directions[random.nextInt(directions.length)];
+				int x = random.nextInt(6);
+				int y = random.nextInt(6);
+				int length = 1 + random.nextInt(3);
+
+				Point p1 = named.computeIfAbsent(x + "," + y, (key) -> new Point("P" + named.size(), x, y));
+				Point p2 = named.computeIfAbsent((x + length * direction[0]) + "," + (y + length * direction[1]),
+						(key) -> new Point("P" + named.size(), x + length * direction[0], y + length * direction[1]));
+
+				candidates.add(new Segment(p1, p2));
+			}
+
+			for (boolean lazy : new boolean[] { false, true }) {
+				PointDatabase points = new PointDatabase(new ArrayList<>(named.values()));
+				Preprocessor pp = new Preprocessor(points, new LinkedHashSet<>(candidates.subList(0, 7)), lazy);
+
+				Random edits = new Random(run);
+				for (int edit = 0; edit < 20; edit++) {
+					Segment segment = candidates.get(edits.nextInt(candidates.size()));
+
+					// add the segment, or remove it when it is in the figure
+					if (!pp.addSegment(segment)) assertTrue(pp.removeSegment(segment));
+
+					assertTrue("run " + run + " edit " + edit, pp.isConsistentWithAnalyze());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void movePointTest() {
+		/**
+		 *      C           B                C           B
+		 *        \       /                    \       /
+		 *          \   /  __F                   \   /
+		 *            *__--          -->    E-----*-----F
+		 *      E__--/   \                     /   \
+		 *        /       \                  /       \
+		 *      A           D              A           D
+		 */
+		Point a = new Point("A", 0, 0);
+		Point b = new Point("B", 4, 4);
+		Point c = new Point("C", 0, 4);
+		Point d = new Point("D", 4, 0);
+		Point e = new Point("E", 0, 1);
+		Point f = new Point("F", 4, 2);
+
+		Set<Segment> segments = new HashSet<>();
+		segments.add(new Segment(a, b));
+		segments.add(new Segment(c, d));
+		segments.add(new Segment(e, f));
+
+		PointDatabase points = new PointDatabase(List.of(a, b, c, d, e, f));
+		Preprocessor pp = new Preprocessor(points, segments);
+
+		// EF crosses AB and CD below the center
+		assertEquals(3, pp.getImplicitPoints().size());
+		assertEquals(9, points.size());
+		assertTrue(pp.isConsistentWithAnalyze());
+
+		// E onto (0, 2): all three segments cross at the center
+		assertTrue(pp.movePoint("E", 0, 2));
+		assertEquals(7, points.size());
+		assertEquals(new Point(0, 2), points.getPoint("E"));
+		assertEquals(9, pp.getAllSegments().size());
+		assertTrue(pp.getAllSegments().containsKey(new Segment(new Point(0, 2), f)));
+		assertTrue(pp.isConsistentWithAnalyze());
+
+		// unknown points and occupied locations are rejected
+		assertFalse(pp.movePoint("Z", 1, 1));
+		assertFalse(pp.movePoint("E", 4, 4));
+		assertTrue(pp.isConsistentWithAnalyze());
+	}
+
+	@Test
+	public void movePointOntoOverlapTest() {
+		// P5 onto (6, 5): P2P5 lies along P1P2, which is split at P5
+		for (boolean lazy : new boolean[] { false, true }) {
+			Point p0 = new Point("P0", 3, 8);
+			Point p1 = new Point("P1", 8, 2);
+			Point p2 = new Point("P2", 4, 8);
+			Point p3 = new Point("P3", 8, 6);
+			Point p4 = new Point("P4", 4, 7);
+			Point p5 = new Point("P5", 4, 3);
+
+			Set<Segment> segments = new LinkedHashSet<>();
+			segments.add(new Segment(p1, p2));
+			segments.add(new Segment(p2, p5));
+			segments.add(new Segment(p4, p0));
+			segments.add(new Segment(p2, p0));
+			segments.add(new Segment(p5, p0));
+			segments.add(new Segment(p4, p3));
+
+			PointDatabase points = new PointDatabase(List.of(p0, p1, p2, p3, p4, p5));
+			Preprocessor pp = new Preprocessor(points, segments, lazy);
+
+			assertTrue(pp.movePoint("P5", 6, 5));
+			assertTrue(pp.isConsistentWithAnalyze());
+
+			Point moved = points.getPoint("P5");
+			assertTrue(pp.getMinimalSegments().contains(new Segment(moved, p1)));
+			assertFalse(pp.getMinimalSegments().contains(new Segment(p2, p1)));
+			assertTrue(pp.getAllSegments().containsKey(new Segment(p2, p1)));
+
+			// and back: P1P2 is rejoined at (6, 5)
+			assertTrue(pp.movePoint("P5", 4, 3));
+			assertTrue(pp.isConsistentWithAnalyze());
+			assertFalse(pp.getAllSegments().containsKey(new Segment(moved, p1)));
+		}
+	}
+
+	@Test
+	public void movePointRestoresNameTest() {
+		/**
+		 *      C           B
+		 *        \       /
+		 *          \   /
+		 *            X          X: an unnamed point (generated name) at the crossing
+		 *          /   \
+		 *        /       \
+		 *      A           D    E-----F moves onto X and off again
+		 */
+		Point a = new Point("A", 0, 0);
+		Point b = new Point("B", 4, 4);
+		Point c = new Point("C", 0, 4);
+		Point d = new Point("D", 4, 0);
+		Point e = new Point("E", 5, 1);
+		Point f = new Point("F", 6, 1);
+
+		Set<Segment> segments = new HashSet<>();
+		segments.add(new Segment(a, b));
+		segments.add(new Segment(c, d));
+		segments.add(new Segment(e, f));
+
+		PointDatabase points = new PointDatabase(List.of(a, b, c, d, e, f));
+		points.put(new Point(2, 2));
+		Preprocessor pp = new Preprocessor(points, segments);
+
+		String generated = points.getName(new Point(2, 2));
+		assertTrue(generated.startsWith("*_"));
+
+		assertTrue(pp.movePoint("E", 2, 2));
+		assertEquals("E", points.getName(new Point(2, 2)));
+		assertTrue(pp.isConsistentWithAnalyze());
+
+		assertTrue(pp.movePoint("E", 5, 1));
+		assertEquals(generated, points.getName(new Point(2, 2)));
+		assertEquals("E", points.getName(new Point(5, 1)));
+		assertTrue(pp.isConsistentWithAnalyze());
+	}
+
+	@Test
+	public void editsCompactIdsTest() {
+		// E slides up the y-axis: every move makes new pieces of EF (and of AB and CD)
+		Point a = new Point("A", 0, 0);
+		Point b = new Point("B", 4, 4);
+		Point c = new Point("C", 0, 4);
+		Point d = new Point("D", 4, 0);
+		Point e = new Point("E", 0, 1);
+		Point f = new Point("F", 4, 2);
+
+		Set<Segment> segments = new HashSet<>();
+		segments.add(new Segment(a, b));
+		segments.add(new Segment(c, d));
+		segments.add(new Segment(e, f));
+
+		Preprocessor pp = new Preprocessor(new PointDatabase(List.of(a, b, c, d, e, f)), segments);
+
+		for (int k = 1; k <= 200; k++) {
+			assertTrue(pp.movePoint("E", 0, 1 + k / 100.0));
+		}
+
+		// the ids of the pieces gone from the figure were dropped
+		assertTrue(pp._segmentIds.size() <= 2 * pp.getAllSegments().size() + 64);
+		assertTrue(pp.isConsistentWithAnalyze());
+	}
+
+	@Test
+	public void packedSegmentDatabaseTest() {
+		Point a = new Point("A", 0, 0);
+		Point b = new Point("B", 4, 4);
+		Point c = new Point("C", 0, 4);
+		Point d = new Point("D", 4, 0);
+		Point e = new Point("E", 0, 1);
+		Point f = new Point("F", 4, 2);
+
+		Set<Segment> segments = new HashSet<>();
+		segments.add(new Segment(a, b));
+		segments.add(new Segment(c, d));
+		segments.add(new Segment(e, f));
+
+		List<Point> given = List.of(a, b, c, d, e, f);
+		Preprocessor plain = new Preprocessor(new PointDatabase(given), segments);
+
+		// a HashMap unless the packed database is asked for
+		Preprocessor packed = Preprocessor.onDemand(new PointDatabase(given), segments);
+		packed.setPackedSegmentDatabase(true);
+
+		assertTrue(plain.getAllSegments() instanceof HashMap);
+		assertTrue(packed.getAllSegments() instanceof SegmentDatabase);
+		assertEquals(plain.getAllSegments(), packed.getAllSegments());
+
+		// kept up to date by edits as the HashMap is
+		assertTrue(packed.movePoint("E", 0, 2));
+		assertTrue(plain.movePoint("E", 0, 2));
+		assertEquals(plain.getAllSegments(), packed.getAllSegments());
+		assertTrue(packed.isConsistentWithAnalyze());
+	}
+
+	@Test
+	public void lazySegmentDatabaseTest() {
+		/**
+		 *            E       F
+		 *            |     /
+		 *            |   /
+		 *      A-----B-----C-----D
+		 *            |
+		 *            G
+		 */
+		Point a = new Point("A", 0, 0);
+		Point b = new Point("B", 1, 0);
+		Point c = new Point("C", 2, 0);
+		Point d = new Point("D", 3, 0);
+		Point e = new Point("E", 1, 2);
+		Point f = new Point("F", 3, 2);
+		Point g = new Point("G", 1, -2);
+
+		Set<Segment> segments = new HashSet<>();
+		segments.add(new Segment(a, b));
+		segments.add(new Segment(b, c));
+		segments.add(new Segment(c, d));
+		segments.add(new Segment(b, e));
+		segments.add(new Segment(b, g));
+		segments.add(new Segment(c, f));
+
+		List<Point> given = List.of(a, b, c, d, e, f, g);
+		Preprocessor eager = new Preprocessor(new PointDatabase(given), segments);
+		Preprocessor lazy = new Preprocessor(new PointDatabase(given), segments, true);
+
+		// 6 segments on AD, 3 on GE and 1 on CF
+		Map<Segment, Segment> view = lazy.getAllSegments();
+		assertEquals(10, view.size());
+		assertEquals(eager.getAllSegments(), view);
+		assertEquals(view, eager.getAllSegments());
+
+		assertTrue(view.containsKey(new Segment(d, a)));
+		assertTrue(view.containsKey(new Segment(g, e)));
+		assertEquals(new Segment(b, d), view.get(new Segment(d, b)));
+		assertFalse(view.containsKey(new Segment(a, e)));
+		assertNull(view.get(new Segment(e, f)));
+
+		int iterated = 0;
+		for (Segment segment : view.keySet()) {
+			assertTrue(eager.getAllSegments().containsKey(segment));
+			iterated++;
+		}
+		assertEquals(10, iterated);
+
+		// edits are reflected in the view
+		assertTrue(lazy.removeSegment(new Segment(b, g)));
+		assertEquals(8, lazy.getAllSegments().size());
+		assertFalse(lazy.getAllSegments().containsKey(new Segment(g, e)));
+		assertTrue(lazy.isConsistentWithAnalyze());
+	}
+
+	@Test
+	public void lazyMatchesEagerOnOverlapsTest() {
+		/**
+		 *      P0----P6==P5-----P1       P6P5 lies inside P6P1: P6P1 is split at P5
+		 */
+		Point p0 = new Point("P0", 0, 1);
+		Point p1 = new Point("P1", 0, 6);
+		Point p5 = new Point("P5", 0, 4);
+		Point p6 = new Point("P6", 0, 3);
+
+		Set<Segment> segments = new HashSet<>();
+		segments.add(new Segment(p1, p6));
+		segments.add(new Segment(p6, p5));
+		segments.add(new Segment(p6, p0));
+
+		List<Point> given = List.of(p0, p1, p5, p6);
+		Preprocessor eager = new Preprocessor(new PointDatabase(given), segments);
+		Preprocessor lazy = new Preprocessor(new PointDatabase(given), segments, true);
+
+		assertEquals(eager.getMinimalSegments(), lazy.getMinimalSegments());
+		assertEquals(3, eager.getMinimalSegments().size());
+		assertTrue(eager.getMinimalSegments().contains(new Segment(p5, p1)));
+
+		// all pairs of the four points on the line
+		assertEquals(6, eager.getAllSegments().size());
+		assertEquals(eager.getAllSegments(), lazy.getAllSegments());
+		assertEquals(lazy.getAllSegments(), eager.getAllSegments());
+		assertTrue(eager.getAllSegments().containsKey(new Segment(p5, p1)));
+		assertTrue(lazy.getAllSegments().containsKey(new Segment(p5, p1)));
+	}
+
+	@Test
+	public void phasesOnDemandTest() {
+		/**
+		 *      C           B
+		 *        \       /
+		 *          \   /
+		 *            *
+		 *          /   \
+		 *        /       \
+		 *      A           D
+		 */
+		Point a = new Point("A", 0, 0);
+		Point b = new Point("B", 4, 4);
+		Point c = new Point("C", 0, 4);
+		Point d = new Point("D", 4, 0);
+
+		Set<Segment> segments = new HashSet<>();
+		segments.add(new Segment(a, b));
+		segments.add(new Segment(c, d));
+
+		PointDatabase points = new PointDatabase(List.of(a, b, c, d));
+		Preprocessor pp = Preprocessor.onDemand(points, segments);
+
+		// nothing is computed up front
+		assertNull(pp._implicitPoints);
+		assertEquals(4, points.size());
+
+		assertEquals(4, pp.getMinimalSegments().size());
+		assertEquals(1, pp.getImplicitPoints().size());
+		assertEquals(5, points.size());
+		assertNull(pp._nonMinimalSegments);
+		assertNull(pp._segmentDatabase);
+
+		// each phase runs once
+		Set<Segment> minimal = pp.getMinimalSegments();
+		assertSame(minimal, pp.getMinimalSegments());
+
+		assertEquals(segments, pp.getNonMinimalSegments());
+		assertEquals(6, pp.getAllSegments().size());
+		assertSame(minimal, pp.getMinimalSegments());
+
+		// the constructor analyzes the figure up front
+		Preprocessor eager = new Preprocessor(new PointDatabase(List.of(a, b, c, d)), segments);
+		assertEquals(1, eager._implicitPoints.size());
+		assertEquals(segments, eager._nonMinimalSegments);
+		assertEquals(6, eager._segmentDatabase.size());
+	}
+
+	@Test
+	public void analyzeComponentsTest() {
+		/**
+		 *      C           B       G           F
+		 *        \       /           \       /
+		 *          \   /               \   /
+		 *            *                   *
+		 *          /   \               /   \
+		 *        /       \           /       \
+		 *      A           D       E           H
+		 */
+		List<Point> list = new ArrayList<>();
+		Set<Segment> segments = new LinkedHashSet<>();
+
+		// the right-hand X first: its crossing is found first
+		for (int offset : new int[] { 10, 0 }) {
+			Point a = new Point(offset + 0, 0);
+			Point b = new Point(offset + 4, 4);
+			Point c = new Point(offset + 0, 4);
+			Point d = new Point(offset + 4, 0);
+
+			list.addAll(List.of(a, b, c, d));
+			segments.add(new Segment(a, b));
+			segments.add(new Segment(c, d));
+		}
+
+		Preprocessor sequential = new Preprocessor(new PointDatabase(list), segments);
+		sequential.analyze();
+
+		Preprocessor parallel = new Preprocessor(new PointDatabase(list), segments);
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			parallel.analyzeComponents(pool);
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		assertEquals(new ArrayList<>(sequential.getImplicitPoints()), new ArrayList<>(parallel.getImplicitPoints()));
+		for (Point pt : sequential.getImplicitPoints()) {
+			assertEquals(sequential._pointDatabase.getName(pt), parallel._pointDatabase.getName(pt));
+		}
+		assertEquals(sequential.getMinimalSegments(), parallel.getMinimalSegments());
+		assertEquals(sequential.getNonMinimalSegments(), parallel.getNonMinimalSegments());
+		assertEquals(sequential.getAllSegments(), parallel.getAllSegments());
+		assertEquals(12, parallel.getAllSegments().size());
+	}
+
+	@Test
+	public void parallelNonMinimalSegmentsTest() {
+		// a grid of 12 horizontal and 12 vertical lines: 12 points per line after the crossings
+		List<Point> list = new ArrayList<>();
+		Set<Segment> segments = new HashSet<>();
+
+		for (int k = 0; k < 12; k++) {
+			Point left = new Point(-1, k), right = new Point(12, k);
+			Point bottom = new Point(k, -1), top = new Point(k, 12);
+
+			list.addAll(List.of(left, right, bottom, top));
+			segments.add(new Segment(left, right));
+			segments.add(new Segment(bottom, top));
+		}
+
+		Preprocessor sequential = new Preprocessor(new PointDatabase(list), segments);
+
+		// on demand: the non-minimal segments are built when first asked for, in the pool
+		Preprocessor parallel = Preprocessor.onDemand(new PointDatabase(list), segments);
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			parallel.setPool(pool);
+
+			// 24 lines of 14 points each
+			assertEquals(24 * 13 * 12 / 2, parallel.getNonMinimalSegments().size());
+		}
+		finally {
+			pool.shutdown();
+		}
+		assertEquals(sequential.getNonMinimalSegments(), parallel.getNonMinimalSegments());
+		assertEquals(sequential.getAllSegments(), parallel.getAllSegments());
 	}
-}
\ No newline at end of file
+}
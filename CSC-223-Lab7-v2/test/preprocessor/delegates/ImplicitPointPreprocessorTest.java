@@ -3,16 +3,21 @@ package preprocessor.delegates;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 
 import components.FigureNode;
 import geometry_objects.Segment;
+import geometry_objects.delegates.SegmentDelegate;
 import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
 import input.InputFacade;
+import utilities.math.analytic_geometry.GeometryPredicates;
 
 public class ImplicitPointPreprocessorTest {
     @Test
@@ -37,4 +42,246 @@ public class ImplicitPointPreprocessorTest {
         assertEquals(1, impliedPoints.size());
         assertTrue(impliedPoints.contains(implied));
     }
+
+    @Test
+    public void computeSweepLineTest() {
+        //
+        // A lattice of crossing lines along with a fan of diagonals
+        // through the lattice points (many concurrent crossings).
+        //
+        int n = 40;
+        List<Segment> segments = new ArrayList<>();
+
+        for (int i = 1; i <= n; i++) {
+            segments.add(new Segment(new Point(0, i), new Point(n + 1, i)));
+            segments.add(new Segment(new Point(i, 0), new Point(i, n + 1)));
+            segments.add(new Segment(new Point(0, 0), new Point(n + 1, i)));
+        }
+
+        assertTrue(segments.size() > ImplicitPointPreprocessor.BROAD_PHASE_THRESHOLD);
+
+        PointDatabase bruteDatabase = new PointDatabase();
+        PointDatabase sweepDatabase = new PointDatabase();
+        PointDatabase computeDatabase = new PointDatabase();
+
+        Set<Point> brute = ImplicitPointPreprocessor.computeBruteForce(bruteDatabase, segments);
+        Set<Point> sweep = ImplicitPointPreprocessor.computeSweepLine(sweepDatabase, segments);
+        Set<Point> computed = ImplicitPointPreprocessor.compute(computeDatabase, segments);
+
+        // same points, discovered in the same order
+        assertEquals(new ArrayList<>(brute), new ArrayList<>(sweep));
+        assertEquals(new ArrayList<>(bruteDatabase.getPoints()), new ArrayList<>(sweepDatabase.getPoints()));
+        assertEquals(new ArrayList<>(brute), new ArrayList<>(computed));
+        assertEquals(new ArrayList<>(bruteDatabase.getPoints()), new ArrayList<>(computeDatabase.getPoints()));
+    }
+
+    @Test
+    public void computeSweepLineRandomTest() {
+        //
+        // Stars (many segments through one point), stars with their endpoints
+        // nudged (crossings a hair apart) and random segments through nearly
+        // one point: the sweep must agree with the pairwise scan exactly.
+        //
+        Random random = new Random(223);
+
+        for (int run = 0; run < 12; run++) {
+            List<Segment> segments = new ArrayList<>();
+
+            for (int i = 0; i < 70; i++) {
+                int center = random.nextInt(3);
+                int dx = random.nextInt(21) - 10;
+                int dy = random.nextInt(21) - 10;
+                if (dx == 0 && dy == 0) dx = 1;
+
+                double cx = 3 * center;
+                double cy = 2 * center;
+                double x = random.nextDouble() * 10;
+                double y = random.nextDouble() * 10;
+
+                switch (run % 3) {
+                case 0:
+                    segments.add(new Segment(new Point(cx - dx, cy - dy), new Point(cx + dx, cy + dy)));
+                    break;
+                case 1:
+                    double jitter = (random.nextInt(3) - 1) * 1e-6;
+                    segments.add(new Segment(new Point(cx - dx + jitter, cy - dy), new Point(cx + dx, cy + dy - jitter)));
+                    break;
+                default:
+                    segments.add(new Segment(new Point(x, y), new Point(10 - x + 1e-9 * random.nextInt(3), 10 - y)));
+                }
+            }
+
+            PointDatabase bruteDatabase = new PointDatabase();
+            PointDatabase sweepDatabase = new PointDatabase();
+
+            Set<Point> brute = ImplicitPointPreprocessor.computeBruteForce(bruteDatabase, segments);
+            Set<Point> sweep = ImplicitPointPreprocessor.computeSweepLine(sweepDatabase, segments);
+
+            assertEquals(new ArrayList<>(brute), new ArrayList<>(sweep));
+            assertEquals(bruteDatabase.getPoints().toString(), sweepDatabase.getPoints().toString());
+        }
+    }
+
+    @Test
+    public void computeUniformGridTest() {
+        //
+        // Two far apart clusters of crossing segments: pairs from different
+        // clusters never share a grid cell.
+        //
+        List<Segment> segments = new ArrayList<>();
+
+        for (int offset : new int[] { 0, 1000 }) {
+            for (int i = 1; i <= 5; i++) {
+                segments.add(new Segment(new Point(offset, offset + i), new Point(offset + 6, offset + i)));
+                segments.add(new Segment(new Point(offset + i, offset), new Point(offset + i, offset + 6)));
+            }
+        }
+
+        PointDatabase bruteDatabase = new PointDatabase();
+        PointDatabase gridDatabase = new PointDatabase();
+
+        BroadPhaseStatistics statistics = new BroadPhaseStatistics();
+
+        Set<Point> brute = ImplicitPointPreprocessor.computeBruteForce(bruteDatabase, segments);
+        Set<Point> grid = ImplicitPointPreprocessor.computeUniformGrid(gridDatabase, segments, statistics);
+
+        assertEquals(50, grid.size());
+        assertEquals(new ArrayList<>(brute), new ArrayList<>(grid));
+        assertEquals(new ArrayList<>(bruteDatabase.getPoints()), new ArrayList<>(gridDatabase.getPoints()));
+
+        // 20 C 2 pairs for a pairwise scan; at least every cross-cluster pair is rejected
+        assertEquals(190, statistics.getBruteForcePairs());
+        assertEquals(50, statistics.getIntersections());
+        assertTrue(statistics.getRejectedPairs() >= 100);
+        assertEquals(statistics.getBruteForcePairs(), statistics.getCandidatePairs() + statistics.getRejectedPairs());
+
+        // T-junctions split a segment without crossing it
+        segments.add(new Segment(new Point(1000.5, 1005), new Point(1000.5, 1010)));
+        segments.add(new Segment(new Point(0.5, 1), new Point(0.5, -4)));
+
+        statistics = new BroadPhaseStatistics();
+        ImplicitPointPreprocessor.computeUniformGrid(new PointDatabase(), segments, statistics);
+
+        assertEquals(50, statistics.getIntersections());
+        assertEquals(2, statistics.getSplits());
+    }
+
+    @Test
+    public void computeParallelTest() {
+        // a fan of segments from the bottom edge crossing a fan from the top edge
+        List<Segment> segments = new ArrayList<>();
+
+        for (int i = 0; i < 60; i++) {
+            segments.add(new Segment(new Point(i, 0), new Point(60 - i, 60)));
+            segments.add(new Segment(new Point(0, i + 0.5), new Point(60, 60 - i)));
+        }
+
+        PointDatabase sequentialDatabase = new PointDatabase();
+        Set<Point> sequential = ImplicitPointPreprocessor.computeBruteForce(sequentialDatabase, segments);
+
+        for (int threads : new int[] { 1, 2, 7 }) {
+            PointDatabase parallelDatabase = new PointDatabase();
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            Set<Point> parallel;
+            try {
+                parallel = ImplicitPointPreprocessor.computeParallel(parallelDatabase, segments, pool);
+            }
+            finally {
+                pool.shutdown();
+            }
+
+            assertEquals(new ArrayList<>(sequential), new ArrayList<>(parallel));
+            // same names in the same order
+            assertEquals(sequentialDatabase.getPoints().toString(), parallelDatabase.getPoints().toString());
+        }
+    }
+
+    @Test
+    public void computeConcurrentTest() {
+        // three segments through (2.8, 4.8) = (14/5, 24/5): a single implicit point
+        List<Segment> segments = new ArrayList<>();
+
+        segments.add(new Segment(new Point(4, 4), new Point(1, 6)));
+        segments.add(new Segment(new Point(2, 6), new Point(4, 3)));
+        segments.add(new Segment(new Point(7, 3), new Point(0, 6)));
+
+        PointDatabase points = new PointDatabase();
+        Set<Point> impliedPoints = ImplicitPointPreprocessor.compute(points, segments);
+
+        assertEquals(1, impliedPoints.size());
+        assertTrue(impliedPoints.contains(new Point(2.8, 4.8)));
+        assertEquals(1, points.size());
+    }
+
+    @Test
+    public void segmentBatchTest() {
+        // a small integer lattice: many collinear, touching and nearly degenerate pairs
+        List<Segment> segments = new ArrayList<>();
+
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 6; j++) {
+                segments.add(new Segment(new Point(i, j), new Point((i * 7 + j * 3) % 6, (i * 2 + j * 5) % 6 + 0.5 * (i % 2))));
+            }
+        }
+
+        List<Long> all = new ArrayList<>();
+        List<Long> expected = new ArrayList<>();
+
+        for (int i = 0; i < segments.size(); i++) {
+            for (int j = i + 1; j < segments.size(); j++) {
+                long pair = ImplicitPointPreprocessor.pair(i, j);
+                all.add(pair);
+
+                Segment a = segments.get(i);
+                Segment b = segments.get(j);
+                if (GeometryPredicates.crossInMiddle(a.getPoint1(), a.getPoint2(), b.getPoint1(), b.getPoint2()) ||
+                    SegmentDelegate.standingOn(a, b)) expected.add(pair);
+            }
+        }
+
+        long[] pairs = new long[all.size()];
+        for (int k = 0; k < pairs.length; k++) pairs[k] = all.get(k);
+
+        // the scalar kernel, and the one create() selects (vector lanes when the module is present)
+        for (SegmentBatch batch : List.of(new SegmentBatch(segments), SegmentBatch.create(segments))) {
+            long[] meeting = batch.meeting(pairs);
+
+            assertFalse(expected.isEmpty());
+            assertEquals(expected.size(), meeting.length);
+            for (int k = 0; k < meeting.length; k++) assertEquals((long) expected.get(k), meeting[k]);
+        }
+    }
+
+    @Test
+    public void computeCrossingsTest() {
+        // a star: four segments through (0, 0), and one more crossing only two of them
+        List<Segment> segments = new ArrayList<>();
+
+        segments.add(new Segment(new Point(-2, 0), new Point(2, 0)));
+        segments.add(new Segment(new Point(0, -2), new Point(0, 2)));
+        segments.add(new Segment(new Point(-2, -2), new Point(2, 2)));
+        segments.add(new Segment(new Point(-2, 2), new Point(2, -2)));
+        segments.add(new Segment(new Point(1, -1), new Point(1, 3)));
+
+        PointDatabase points = new PointDatabase();
+        IntersectionProvenance provenance = new IntersectionProvenance();
+        CrossingTable crossings = ImplicitPointPreprocessor.computeCrossings(points, segments, provenance);
+
+        // (0, 0), (1, 0), (1, 1), (1, -1) is an endpoint of the fifth segment
+        assertEquals(3, crossings.size());
+        assertEquals(3, points.size());
+
+        assertEquals(4, crossings.getMultiplicity(new Point(0, 0)));
+        assertEquals(2, crossings.getMultiplicity(new Point(1, 1)));
+        assertEquals(0, crossings.getMultiplicity(new Point(5, 5)));
+        assertEquals(segments.subList(0, 4), crossings.getCrossingSegments(new Point(0, 0)));
+
+        // one Point object per crossing point
+        Point origin = crossings.getPoints().iterator().next();
+        assertEquals(new Point(0, 0), origin);
+        assertSame(origin, crossings.add(1, 2, 0, 0));
+
+        assertEquals(4, provenance.getCrossingSegments(origin).size());
+        assertEquals(crossings.getPoints(), ImplicitPointPreprocessor.computeBruteForce(new PointDatabase(), segments));
+    }
 }
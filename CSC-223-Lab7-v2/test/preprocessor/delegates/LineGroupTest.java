@@ -0,0 +1,79 @@
+package preprocessor.delegates;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+public class LineGroupTest {
+    @Test
+    public void groupTest() {
+        //
+        //   A-------B-------C        ABC: one line (exactly collinear, end to end)
+        //           |
+        //           D                BD: a line of its own
+        //
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 2, 0);
+        Point c = new Point("C", 4, 0);
+        Point d = new Point("D", 2, -2);
+
+        List<LineGroup> lines = LineGroup.group(Set.of(new Segment(a, b), new Segment(b, c), new Segment(b, d)));
+
+        assertEquals(2, lines.size());
+        for (LineGroup line : lines) {
+            if (line.size() == 3) assertEquals(Set.of(a, b, c), new HashSet<>(line.getPoints()));
+            else assertEquals(Set.of(b, d), new HashSet<>(line.getPoints()));
+        }
+    }
+
+    @Test
+    public void nearlyCollinearTest() {
+        //
+        //                      D
+        //                     /
+        //                   XB          X (truncated) is 1.4e-5 from B, within tolerance:
+        //                 / /           AX, XB and CX, XD are two lines, not one bent line
+        //               /  C            through X and B
+        //             A
+        //
+        Point a = new Point("A", 101, 0.875);
+        Point b = new Point("B", 102.5, 2.125);
+        Point c = new Point("C", 102, 1.5);
+        Point d = new Point("D", 103.1, 2.875);
+        Point x = new Point(102.49999, 2.12499);
+
+        Segment ab = new Segment(a, b);
+        Segment cd = new Segment(c, d);
+
+        Segment ax = new Segment(a, x);
+        Segment xb = new Segment(x, b);
+        Segment cx = new Segment(c, x);
+        Segment xd = new Segment(x, d);
+
+        Map<Segment, Segment> sources = Map.of(ax, ab, xb, ab, cx, cd, xd, cd);
+
+        List<LineGroup> lines = LineGroup.group(List.of(ax, xb, cx, xd), sources);
+
+        assertEquals(2, lines.size());
+        for (LineGroup line : lines) {
+            assertEquals(3, line.size());
+            assertEquals(x, line.getPoints().get(1));
+            assertTrue(line.getPoints().contains(a) ? line.getPoints().contains(b) : line.getPoints().containsAll(List.of(c, d)));
+        }
+
+        // without the segments they are pieces of, the pieces are not collinear: four lines
+        assertEquals(4, LineGroup.group(List.of(ax, xb, cx, xd)).size());
+
+        // non-minimal: AB and CD only
+        LineSubsegments nonMinimal = new LineSubsegments(lines, 2);
+        assertEquals(Set.of(ab, cd), new HashSet<>(nonMinimal));
+    }
+}
@@ -0,0 +1,61 @@
+package preprocessor.delegates;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+public class LineSubsegmentsTest {
+    @Test
+    public void encodingTest() {
+        //
+        //                    E
+        //                    |
+        //   A-------B-------C-------D
+        //                    |
+        //                    F
+        //
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 2, 0);
+        Point c = new Point("C", 4, 0);
+        Point d = new Point("D", 6, 0);
+        Point e = new Point("E", 4, 2);
+        Point f = new Point("F", 4, -2);
+
+        List<LineGroup> lines = List.of(new LineGroup(List.of(a, b, c, d)), new LineGroup(List.of(e, c, f)));
+
+        LineSubsegments nonMinimal = new LineSubsegments(lines, 2);
+        LineSubsegments all = new LineSubsegments(lines, 1);
+
+        // AC, AD, BD and EF
+        assertEquals(4, nonMinimal.size());
+        assertEquals(Set.of(new Segment(a, c), new Segment(a, d), new Segment(b, d), new Segment(e, f)),
+                     new HashSet<>(nonMinimal));
+        assertEquals(6 + 3, all.size());
+        assertEquals(9, new HashSet<>(all).size());
+
+        // membership either way round; C is on both lines
+        assertTrue(nonMinimal.contains(new Segment(d, b)));
+        assertTrue(nonMinimal.contains(new Segment(f, e)));
+        assertFalse(nonMinimal.contains(new Segment(b, c)));
+        assertTrue(all.contains(new Segment(c, b)));
+        assertTrue(all.contains(new Segment(c, f)));
+        assertFalse(all.contains(new Segment(a, e)));
+        assertFalse(all.contains(new Segment(a, new Point(9, 9))));
+
+        // codes round trip
+        long code = nonMinimal.code(new Segment(d, a));
+        assertEquals(0, LineSubsegments.line(code));
+        assertEquals(0, LineSubsegments.first(code));
+        assertEquals(3, LineSubsegments.second(code));
+        assertEquals(new Segment(a, d), nonMinimal.segment(code));
+        assertEquals(-1, nonMinimal.code(new Segment(c, d)));
+        assertEquals(LineSubsegments.code(1, 0, 2), all.code(new Segment(e, f)));
+    }
+}
@@ -0,0 +1,79 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.SegmentIntersectionDelegate;
+import geometry_objects.points.Point;
+
+/**
+ * Timing harness (not a unit test): filters the candidate pairs of random
+ * segments (those UniformGrid reports: overlapping bounding boxes) for the
+ * pairs that meet, three ways:
+ *
+ *     delegate -- SegmentIntersectionDelegate.meet on each pair
+ *     scalar   -- SegmentBatch
+ *     selected -- SegmentBatch.create (VectorSegmentBatch when the vector module is present)
+ *
+ * Run with and without --add-modules jdk.incubator.vector to compare the kernels:
+ *
+ *     java [--add-modules jdk.incubator.vector] preprocessor.delegates.SegmentBatchBenchmark [segments] [rounds]
+ */
+public class SegmentBatchBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Random random = new Random(223);
+        List<Segment> segments = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double x = 100 * random.nextDouble();
+            double y = 100 * random.nextDouble();
+
+            segments.add(new Segment(new Point(x, y), new Point(x + 20 * random.nextDouble() - 10, y + 20 * random.nextDouble() - 10)));
+        }
+
+        long[] pairs = new UniformGrid(segments).candidatePairs(null);
+
+        SegmentBatch scalar = new SegmentBatch(segments);
+        SegmentBatch selected = SegmentBatch.create(segments);
+
+        if (!Arrays.equals(scalar.meeting(pairs), selected.meeting(pairs))) throw new AssertionError("kernels disagree");
+
+        System.out.printf("%d segments, %d pairs, selected kernel: %s%n", n, pairs.length, selected.getClass().getSimpleName());
+
+        long[] best = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE };
+        int[] found = new int[3];
+        double[] xy = new double[2];
+
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            int meeting = 0;
+            for (long pair : pairs) {
+                Segment s = segments.get(ImplicitPointPreprocessor.first(pair));
+                Segment t = segments.get(ImplicitPointPreprocessor.second(pair));
+
+                if (SegmentIntersectionDelegate.meet(s, t, xy) != SegmentIntersectionDelegate.NONE) meeting++;
+            }
+            best[0] = Math.min(best[0], System.nanoTime() - start);
+            found[0] = meeting;
+
+            start = System.nanoTime();
+            found[1] = scalar.meeting(pairs).length;
+            best[1] = Math.min(best[1], System.nanoTime() - start);
+
+            start = System.nanoTime();
+            found[2] = selected.meeting(pairs).length;
+            best[2] = Math.min(best[2], System.nanoTime() - start);
+        }
+
+        String[] names = { "delegate", "scalar", "selected" };
+        for (int k = 0; k < 3; k++) {
+            System.out.printf("%-9s %8.2f ms  %6.1f ns/pair  (%d meeting)%n",
+                              names[k], best[k] / 1e6, (double) best[k] / pairs.length, found[k]);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import utilities.LongHashMap;
+
+/**
+ * Timing harness (not a unit test): inserts random segments (between a
+ * fixed set of points) and then looks each one up, in
+ *
+ *     HashMap<Segment, Segment> -- the segment database before SegmentDatabase
+ *     SegmentDatabase           -- keyed by packed point numbers
+ *     HashMap<Long, Segment>    -- the packed keys, boxed
+ *     LongHashMap<Segment>      -- the packed keys, as SegmentDatabase stores them
+ *
+ *     java preprocessor.delegates.SegmentDatabaseBenchmark [segments] [rounds]
+ */
+public class SegmentDatabaseBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Random random = new Random(223);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < n / 4; i++) points.add(new Point(1000 * random.nextDouble(), 1000 * random.nextDouble()));
+
+        List<Segment> segments = new ArrayList<>();
+        long[] keys = new long[n];
+        for (int k = 0; k < n; k++) {
+            int i = random.nextInt(points.size());
+            int j = random.nextInt(points.size());
+
+            segments.add(new Segment(points.get(i), points.get(j)));
+            keys[k] = SegmentDatabase.key(i, j);
+        }
+
+        String[] names = { "HashMap<Segment, Segment>", "SegmentDatabase", "HashMap<Long, Segment>", "LongHashMap<Segment>" };
+        long[] insert = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE };
+        long[] lookup = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE };
+        int found = 0;
+
+        for (int round = 0; round < rounds; round++) {
+            for (int m = 0; m < 2; m++) {
+                Map<Segment, Segment> map = m == 0 ? new HashMap<>() : new SegmentDatabase();
+
+                long start = System.nanoTime();
+                for (Segment segment : segments) map.put(segment, segment);
+                insert[m] = Math.min(insert[m], System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (Segment segment : segments) if (map.get(segment) != null) found++;
+                lookup[m] = Math.min(lookup[m], System.nanoTime() - start);
+            }
+
+            Map<Long, Segment> boxed = new HashMap<>();
+
+            long start = System.nanoTime();
+            for (int k = 0; k < n; k++) boxed.put(keys[k], segments.get(k));
+            insert[2] = Math.min(insert[2], System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int k = 0; k < n; k++) if (boxed.get(keys[k]) != null) found++;
+            lookup[2] = Math.min(lookup[2], System.nanoTime() - start);
+
+            LongHashMap<Segment> primitive = new LongHashMap<>();
+
+            start = System.nanoTime();
+            for (int k = 0; k < n; k++) primitive.put(keys[k], segments.get(k));
+            insert[3] = Math.min(insert[3], System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int k = 0; k < n; k++) if (primitive.get(keys[k]) != null) found++;
+            lookup[3] = Math.min(lookup[3], System.nanoTime() - start);
+        }
+
+        System.out.printf("%d segments on %d points (%d found)%n", n, points.size(), found);
+        for (int m = 0; m < names.length; m++) {
+            System.out.printf("%-26s insert %7.2f ms  lookup %7.2f ms%n", names[m], insert[m] / 1e6, lookup[m] / 1e6);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package preprocessor.delegates;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+public class SegmentDatabaseTest {
+    @Test
+    public void numberingTest() {
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 1, 0);
+        Point c = new Point("C", 2, 0);
+        Point d = new Point("D", 3, 0);
+
+        SegmentDatabase database = new SegmentDatabase();
+        database.put(new Segment(a, b), new Segment(a, b));
+        database.put(new Segment(b, c), new Segment(b, c));
+
+        assertEquals(3, database._ids.size());
+        assertTrue(database.containsKey(new Segment(c, b)));
+
+        // lookups do not number unknown points
+        assertNull(database.get(new Segment(c, d)));
+        assertNull(database.remove(new Segment(c, d)));
+        assertEquals(3, database._ids.size());
+
+        // C is no longer an endpoint: it is dropped, and its number goes to D
+        int numberOfC = database._ids.get(c);
+        assertEquals(new Segment(b, c), database.remove(new Segment(c, b)));
+        assertEquals(2, database._ids.size());
+        assertFalse(database._ids.containsKey(c));
+
+        database.put(new Segment(b, d), new Segment(b, d));
+        assertEquals(numberOfC, (int) database._ids.get(d));
+        assertEquals(new Segment(a, b), database.get(new Segment(b, a)));
+        assertEquals(new Segment(b, d), database.get(new Segment(d, b)));
+        assertEquals(2, database.size());
+
+        // many edits keep the numbering to the points in the database
+        for (int k = 0; k < 1000; k++) {
+            Segment segment = new Segment(new Point(k, 1), new Point(k, 2));
+
+            database.put(segment, segment);
+            assertEquals(segment, database.remove(segment));
+        }
+        assertEquals(3, database._ids.size());
+        assertEquals(2, database.size());
+    }
+}
@@ -0,0 +1,81 @@
+package preprocessor.delegates;
+
+import static org.junit.Assert.*;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import preprocessor.Preprocessor;
+
+public class SegmentNormalizationTest {
+    @Test
+    public void normalizeTest() {
+        //
+        //                    E
+        //                    |
+        //   A-------B-------C-------D
+        //                    |
+        //                    F
+        //
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 2, 0);
+        Point c = new Point("C", 4, 0);
+        Point d = new Point("D", 6, 0);
+        Point e = new Point("E", 3, 2);
+        Point f = new Point("F", 3, -2);
+
+        Segment ac = new Segment(a, c);
+        Segment bd = new Segment(b, d);
+        Segment ad = new Segment(a, d);
+        Segment ef = new Segment(e, f);
+
+        Set<Segment> given = new LinkedHashSet<>(List.of(ac, bd, ad, ef));
+        SegmentNormalization normalization = SegmentNormalization.normalize(given);
+
+        assertTrue(normalization.isChanged());
+        assertEquals(Set.of(new Segment(a, b), new Segment(b, c), new Segment(c, d), ef), normalization.getSegments());
+
+        // EF overlaps nothing: kept as given
+        assertSame(ef, normalization.getSegments().stream().filter(ef::equals).findFirst().get());
+        assertEquals(Set.of(ef), normalization.getSources(ef));
+
+        // provenance both ways
+        assertEquals(Set.of(ac, bd, ad), normalization.getSources(new Segment(b, c)));
+        assertEquals(Set.of(ac, ad), normalization.getSources(new Segment(a, b)));
+        assertEquals(List.of(new Segment(a, b), new Segment(b, c)), normalization.getPieces(ac));
+        assertEquals(3, normalization.getPieces(ad).size());
+
+        // segments touching end to end (or crossing) do not overlap
+        assertFalse(SegmentNormalization.normalize(List.of(new Segment(a, b), new Segment(b, c), ef)).isChanged());
+    }
+
+    @Test
+    public void normalizedPreprocessorTest() {
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 2, 0);
+        Point c = new Point("C", 4, 0);
+        Point d = new Point("D", 6, 0);
+        Point e = new Point("E", 3, 2);
+        Point f = new Point("F", 3, -2);
+
+        Set<Segment> given = new LinkedHashSet<>(List.of(new Segment(a, c), new Segment(b, d), new Segment(e, f)));
+
+        PointDatabase points = new PointDatabase(List.of(a, b, c, d, e, f));
+        Preprocessor pp = new Preprocessor(points, given, false, true);
+
+        // one crossing with the line (on BC), not one per overlapping segment
+        assertEquals(1, pp.getImplicitPoints().size());
+        assertTrue(pp.getImplicitPoints().contains(new Point(3, 0)));
+
+        // A B * C D along the line and E * F across it
+        assertEquals(6, pp.getMinimalSegments().size());
+        assertEquals(6 + 6 + 1, pp.getAllSegments().size());
+        assertNotNull(pp.getNormalization());
+    }
+}
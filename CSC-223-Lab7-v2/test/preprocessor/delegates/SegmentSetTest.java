@@ -0,0 +1,110 @@
+package preprocessor.delegates;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+public class SegmentSetTest {
+    @Test
+    public void setAlgebraTest() {
+        SegmentIds ids = new SegmentIds();
+
+        // more segments than one word of bits
+        List<Segment> segments = new ArrayList<>();
+        for (int k = 0; k < 150; k++) segments.add(new Segment(new Point(k, 0), new Point(k, 1)));
+
+        SegmentSet evens = new SegmentSet(ids);
+        SegmentSet low = new SegmentSet(ids);
+        for (int k = 0; k < 150; k++) {
+            if (k % 2 == 0) assertTrue(evens.add(segments.get(k)));
+            if (k < 100) low.add(segments.get(k));
+        }
+        assertFalse(evens.add(new Segment(new Point(0, 1), new Point(0, 0))));
+        assertEquals(75, evens.size());
+        assertEquals(100, low.size());
+
+        // equal segments are one member, whichever object is asked for
+        assertTrue(evens.contains(new Segment(new Point(148, 1), new Point(148, 0))));
+        assertFalse(evens.contains(segments.get(149)));
+        assertFalse(evens.contains(new Segment(new Point(0, 0), new Point(5, 5))));
+
+        SegmentSet union = new SegmentSet(evens);
+        assertTrue(union.addAll(low));
+        assertEquals(100 + 25, union.size());
+
+        SegmentSet difference = new SegmentSet(low);
+        assertTrue(difference.removeAll(evens));
+        assertEquals(50, difference.size());
+        assertFalse(difference.contains(segments.get(10)));
+        assertTrue(difference.contains(segments.get(11)));
+
+        SegmentSet intersection = new SegmentSet(low);
+        intersection.retainAll(evens);
+        assertEquals(50, intersection.size());
+
+        // the copies are independent; mixing with other sets works segment by segment
+        assertEquals(75, evens.size());
+        assertEquals(new HashSet<>(intersection), intersection);
+        Set<Segment> plain = new HashSet<>(List.of(segments.get(0), segments.get(1)));
+        assertTrue(intersection.removeAll(plain));
+        assertEquals(49, intersection.size());
+
+        // iteration is in id order; removal through the iterator
+        Iterator<Segment> it = difference.iterator();
+        assertEquals(segments.get(1), it.next());
+        it.remove();
+        assertEquals(49, difference.size());
+        assertFalse(difference.contains(segments.get(1)));
+    }
+
+    @Test
+    public void compactTest() {
+        SegmentIds ids = new SegmentIds();
+
+        List<Segment> segments = new ArrayList<>();
+        for (int k = 0; k < 150; k++) segments.add(new Segment(new Point(k, 0), new Point(k, 1)));
+
+        // ids 0..149; only multiples of 3 and 5 stay in use
+        SegmentSet threes = new SegmentSet(ids);
+        SegmentSet fives = new SegmentSet(ids);
+        for (int k = 0; k < 150; k++) {
+            ids.id(segments.get(k));
+            if (k % 3 == 0) threes.add(segments.get(k));
+            if (k % 5 == 0) fives.add(segments.get(k));
+        }
+        List<Segment> threesBefore = new ArrayList<>(threes);
+        List<Segment> fivesBefore = new ArrayList<>(fives);
+
+        // a set over other ids is left alone; a set given twice is renumbered once
+        SegmentSet other = new SegmentSet(new SegmentIds());
+        other.add(segments.get(1));
+
+        assertEquals(150 - 70, ids.compact(threes, fives, threes, other));
+        assertEquals(70, ids.size());
+
+        // same members, same order, on the new ids
+        assertEquals(threesBefore, new ArrayList<>(threes));
+        assertEquals(fivesBefore, new ArrayList<>(fives));
+        assertEquals(50, threes.size());
+        assertEquals(-1, ids.find(segments.get(1)));
+        assertEquals(2, ids.find(segments.get(5)));
+
+        // still combined word by word; new segments get the next ids
+        SegmentSet both = new SegmentSet(threes);
+        both.retainAll(fives);
+        assertEquals(10, both.size());
+        assertEquals(70, ids.id(segments.get(1)));
+        assertTrue(threes.add(segments.get(1)));
+        assertEquals(List.of(segments.get(0), segments.get(3)), new ArrayList<>(threes).subList(0, 2));
+        assertTrue(other.contains(segments.get(1)));
+    }
+}
@@ -0,0 +1,58 @@
+package utilities;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class LongHashMapTest {
+    @Test
+    public void putGetRemoveTest() {
+        LongHashMap<String> map = new LongHashMap<>();
+
+        assertNull(map.put(1L << 32 | 7, "a"));
+        assertNull(map.put(7, "b"));
+        assertEquals("a", map.put(1L << 32 | 7, "c"));
+
+        assertEquals(2, map.size());
+        assertEquals("c", map.get(1L << 32 | 7));
+        assertEquals("b", map.get(7));
+        assertNull(map.get(8));
+
+        assertEquals("b", map.remove(7));
+        assertNull(map.remove(7));
+        assertFalse(map.containsKey(7));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void sameAsHashMapTest() {
+        // keys from a small range: long probe sequences and many removals from the middle of them
+        Random random = new Random(3);
+        LongHashMap<Long> map = new LongHashMap<>(1);
+        Map<Long, Long> expected = new HashMap<>();
+
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(2000) * 0x100000000L;
+
+            if (random.nextInt(3) == 0) assertEquals(expected.remove(key), map.remove(key));
+            else assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (long key = 0; key < 2000; key++) {
+            assertEquals(expected.get(key * 0x100000000L), map.get(key * 0x100000000L));
+        }
+
+        Set<Long> values = new HashSet<>();
+        for (Long value : map) values.add(value);
+
+        assertEquals(new HashSet<>(expected.values()), values);
+    }
+}
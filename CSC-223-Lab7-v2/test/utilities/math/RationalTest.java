@@ -0,0 +1,108 @@
+package utilities.math;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+import org.junit.Test;
+
+public class RationalTest {
+    @Test
+    public void reductionTest() {
+        assertEquals(Rational.of(2, 3), Rational.of(4, 6));
+        assertEquals(Rational.of(2, 3), Rational.of(-4, -6));
+        assertEquals("2/3", Rational.of(4, 6).toString());
+
+        assertEquals(Rational.ZERO, Rational.of(0, -5));
+        assertEquals(Rational.ONE, Rational.of(7, 7));
+        assertEquals("5", Rational.of(10, 2).toString());
+        assertTrue(Rational.of(10, 2).isInteger());
+
+        assertEquals(BigInteger.valueOf(3), Rational.of(6, 8).numerator());
+        assertEquals(BigInteger.valueOf(4), Rational.of(6, 8).denominator());
+    }
+
+    @Test
+    public void signTest() {
+        // the sign is kept on the numerator; the denominator is positive
+        Rational negative = Rational.of(3, -4);
+
+        assertEquals(Rational.of(-3, 4), negative);
+        assertEquals(BigInteger.valueOf(-3), negative.numerator());
+        assertEquals(BigInteger.valueOf(4), negative.denominator());
+        assertEquals(-1, negative.signum());
+        assertEquals("-3/4", negative.toString());
+
+        assertEquals(Rational.of(3, 4), negative.negate());
+        assertTrue(negative.compareTo(Rational.ZERO) < 0);
+        assertTrue(Rational.of(-1, 3).compareTo(Rational.of(-1, 2)) > 0);
+    }
+
+    @Test
+    public void overflowTest() {
+        Rational big = Rational.of(Long.MAX_VALUE);
+
+        // products past a long are carried in BigIntegers
+        Rational square = big.multiply(big);
+        BigInteger max = BigInteger.valueOf(Long.MAX_VALUE);
+
+        assertEquals(max.multiply(max), square.numerator());
+        assertEquals(BigInteger.ONE, square.denominator());
+
+        assertEquals(max.add(max), big.add(big).numerator());
+        assertEquals(max.negate().subtract(BigInteger.ONE), Rational.of(Long.MIN_VALUE).numerator());
+        assertEquals(max.add(BigInteger.ONE), Rational.of(Long.MIN_VALUE).negate().numerator());
+
+        // ... and back in longs once the value fits again
+        assertEquals(big, square.divide(big));
+        assertEquals(Rational.ONE, square.divide(square));
+        assertEquals(Rational.of(1, Long.MAX_VALUE), Rational.ONE.divide(big));
+    }
+
+    @Test
+    public void equalsHashCodeTest() {
+        // the same value reached through longs and through BigIntegers
+        BigInteger factor = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.TEN);
+        Rational viaBig = Rational.of(BigInteger.valueOf(-6).multiply(factor), BigInteger.valueOf(8).multiply(factor));
+        Rational viaLong = Rational.of(3, -4);
+
+        assertEquals(viaLong, viaBig);
+        assertEquals(viaBig, viaLong);
+        assertEquals(viaLong.hashCode(), viaBig.hashCode());
+
+        Rational max = Rational.of(Long.MAX_VALUE);
+        Rational product = max.multiply(Rational.of(3)).divide(Rational.of(3));
+        assertEquals(max, product);
+        assertEquals(max.hashCode(), product.hashCode());
+
+        // values past a long
+        Rational huge = max.multiply(max);
+        assertEquals(huge, max.multiply(max));
+        assertEquals(huge.hashCode(), max.multiply(max).hashCode());
+        assertNotEquals(huge, huge.add(Rational.ONE));
+    }
+
+    @Test
+    public void doubleValueTest() {
+        assertEquals(0.5, Rational.of(1, 2).doubleValue(), 0);
+        assertEquals(-2.8, Rational.of(-14, 5).doubleValue(), 0);
+
+        // past 2^53: the nearest double, as a correctly rounded decimal expansion gives it
+        BigInteger num = BigInteger.ONE.shiftLeft(80).add(BigInteger.valueOf(12345));
+        BigInteger den = BigInteger.valueOf(3).shiftLeft(40).add(BigInteger.ONE);
+
+        for (int k = 0; k < 50; k++) {
+            Rational value = Rational.of(num.add(BigInteger.valueOf(k)), den);
+            double expected = new BigDecimal(value.numerator()).divide(new BigDecimal(value.denominator()), new MathContext(60)).doubleValue();
+
+            assertEquals(expected, value.doubleValue(), 0);
+            assertEquals(-expected, value.negate().doubleValue(), 0);
+        }
+
+        // equal values give the same double however they are held
+        Rational third = Rational.of(BigInteger.ONE.shiftLeft(70), BigInteger.valueOf(3).shiftLeft(70));
+        assertEquals(Rational.of(1, 3).doubleValue(), third.doubleValue(), 0);
+    }
+}